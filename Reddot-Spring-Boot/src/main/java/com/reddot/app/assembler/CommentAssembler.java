@@ -17,7 +17,7 @@ public interface CommentAssembler {
 
     @Mapping(target = "commentId", source = "id")
     @Mapping(target = "questionId", source = "question.id")
-    @Mapping(target = "author", source = "user")
+    @Mapping(target = "author", ignore = true)
     @Mapping(target = "creationDate", source = "createdAt")
     @Mapping(target = "lastEditDate", source = "updatedAt")
     @Mapping(target = "upvoted", ignore = true)
@@ -26,4 +26,11 @@ public interface CommentAssembler {
 
     List<CommentDTO> toDTOList(List<Comment> comments);
 
+    /**
+     * Maps the list and fills the upvoted and downvoted flags of the given viewer in bulk.
+     * Implemented by {@link CommentMapperDecorator}.
+     */
+    default List<CommentDTO> toDTOList(List<Comment> comments, Integer viewerId) {
+        return toDTOList(comments);
+    }
 }
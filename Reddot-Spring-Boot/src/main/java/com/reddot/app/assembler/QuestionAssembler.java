@@ -14,7 +14,7 @@ import java.util.List;
 /**
  * QuestionAssembler class is used to convert Question entity to QuestionDTO record and vice versa.
  */
-@Mapper(componentModel = "spring", uses = {UserAssembler.class, CommentAssembler.class}, injectionStrategy = InjectionStrategy.CONSTRUCTOR)
+@Mapper(componentModel = "spring", uses = {UserAssembler.class}, injectionStrategy = InjectionStrategy.CONSTRUCTOR)
 @DecoratedWith(QuestionMapperDecorator.class)
 @Component("delegate")
 public interface QuestionAssembler {
@@ -28,9 +28,10 @@ public interface QuestionAssembler {
      * </ol>
      */
     @Mapping(target = "questionId", source = "question.id")
-    @Mapping(target = "author", source = "user")
+    @Mapping(target = "author", ignore = true)
     @Mapping(target = "commentCount", source = "question")
-    @Mapping(target = "commentList", source = "question.comments")
+    // mapped for the whole list at once by the decorator
+    @Mapping(target = "commentList", ignore = true)
     @Mapping(target = "lastEditDate", source = "question.updatedAt")
     @Mapping(target = "creationDate", source = "question.createdAt")
     @Mapping(target = "closeDate", source = "question.closedAt")
@@ -41,8 +42,17 @@ public interface QuestionAssembler {
 
     List<QuestionDTO> toDTOList(List<Question> list);
 
-    // count total number of comments
+    /**
+     * Maps the list and fills the upvoted, downvoted and bookmarked flags of the given viewer in bulk,
+     * with the comments of all the questions mapped together.
+     * Implemented by {@link QuestionMapperDecorator}.
+     */
+    default List<QuestionDTO> toDTOList(List<Question> list, Integer viewerId) {
+        return toDTOList(list);
+    }
+
+    // total number of comments, read from the stored counter so the comments are not loaded
     default Integer countComments(Question question) {
-        return (question.getComments() == null) ? 0 : question.getComments().size();
+        return question.getCommentCount();
     }
 }
@@ -1,9 +1,9 @@
 package com.reddot.app.assembler;
 
-import com.reddot.app.dto.response.ShallowUserDTO;
 import com.reddot.app.dto.response.UserProfileDTO;
 import com.reddot.app.entity.Person;
 import com.reddot.app.entity.User;
+import com.reddot.app.repository.UserProfileView;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.springframework.stereotype.Component;
@@ -17,13 +17,9 @@ public interface UserAssembler {
 
     @Mapping(target = "userId", source = "u.id")
     @Mapping(target = "avatarLink", source = "u.avatarUrl")
+    @Mapping(target = "stats", ignore = true)
     UserProfileDTO toUserProfileDTO(User u, Person p);
 
-    // TODO: IMPLEMENT CountBadge() map list/set
-    @Mapping(target = "userId", source = "id")
-    @Mapping(target = "displayName", source = "person.displayName")
-    @Mapping(target = "profileImage", source = "avatarUrl")
-    @Mapping(target = "websiteLink", source = "person.websiteUrl")
-    @Mapping(target = "badgeCounts", ignore = true)
-    ShallowUserDTO userToShallowUserDTO(User u);
+    @Mapping(target = "stats", ignore = true)
+    UserProfileDTO toUserProfileDTO(UserProfileView view);
 }
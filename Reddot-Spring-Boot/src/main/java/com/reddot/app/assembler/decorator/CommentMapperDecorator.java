@@ -2,49 +2,72 @@ package com.reddot.app.assembler.decorator;
 
 import com.reddot.app.assembler.CommentAssembler;
 import com.reddot.app.dto.response.CommentDTO;
+import com.reddot.app.dto.response.ShallowUserDTO;
 import com.reddot.app.entity.Comment;
 import com.reddot.app.entity.User;
-import com.reddot.app.service.comment.CommentService;
 import com.reddot.app.service.system.SystemAuthentication;
+import com.reddot.app.service.user.AuthorCardCache;
+import com.reddot.app.service.viewer.ViewerState;
+import com.reddot.app.service.viewer.ViewerStateService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.context.annotation.Lazy;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.Map;
+
 @Service
 public abstract class CommentMapperDecorator implements CommentAssembler {
     @Autowired
     @Qualifier("delegate")
     private CommentAssembler delegate;
     @Autowired
-    @Lazy
-    private CommentService commentService;
+    private ViewerStateService viewerStateService;
+    @Autowired
+    private AuthorCardCache authorCardCache;
 
     @Override
     public CommentDTO toDTO(Comment comment) {
-        CommentDTO dto = delegate.toDTO(comment);
+        return toDTOList(List.of(comment)).getFirst();
+    }
+
+    @Override
+    public List<CommentDTO> toDTOList(List<Comment> comments) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Integer viewerId = null;
         if (SystemAuthentication.isLoggedIn(authentication)) {
-            User user = (User) authentication.getPrincipal();
-            dto.setUpvoted(isCommentUpvoted(comment, user.getId()));
-            dto.setDownvoted(isCommentDownvoted(comment, user.getId()));
+            viewerId = ((User) authentication.getPrincipal()).getId();
         }
-        return dto;
+        return toDTOList(comments, viewerId);
     }
 
-    private Boolean isCommentUpvoted(Comment comment, Integer userId) {
-        if (userId != null) {
-            return commentService.isCommentUpvotedByUser(comment.getId(), userId);
+    @Override
+    public List<CommentDTO> toDTOList(List<Comment> comments, Integer viewerId) {
+        // the delegate maps item by item without any viewer lookup, one query for the votes of the whole list
+        List<CommentDTO> dtoList = delegate.toDTOList(comments);
+        if (viewerId != null && !dtoList.isEmpty()) {
+            List<Integer> ids = dtoList.stream().map(CommentDTO::getCommentId).toList();
+            ViewerState state = viewerStateService.forComments(viewerId, ids);
+            dtoList.forEach(dto -> {
+                dto.setUpvoted(state.isUpvoted(dto.getCommentId()));
+                dto.setDownvoted(state.isDownvoted(dto.getCommentId()));
+            });
         }
-        return null;
+        setAuthors(comments, dtoList);
+        return dtoList;
     }
 
-    private Boolean isCommentDownvoted(Comment comment, Integer userId) {
-        if (userId != null) {
-            return commentService.isCommentDownvotedByUser(comment.getId(), userId);
+    // the authors are lazy, only their ids are read, the cards of the whole list come from one cache lookup
+    private void setAuthors(List<Comment> entities, List<CommentDTO> dtoList) {
+        List<Integer> authorIds = entities.stream().map(e -> e.getUser() == null ? null : e.getUser().getId()).toList();
+        Map<Integer, ShallowUserDTO> cards = authorCardCache.getAll(authorIds);
+        for (int i = 0; i < dtoList.size(); i++) {
+            Integer authorId = authorIds.get(i);
+            if (authorId != null) {
+                dtoList.get(i).setAuthor(cards.get(authorId));
+            }
         }
-        return null;
     }
 }
@@ -1,18 +1,27 @@
 package com.reddot.app.assembler.decorator;
 
+import com.reddot.app.assembler.CommentAssembler;
 import com.reddot.app.assembler.QuestionAssembler;
+import com.reddot.app.dto.response.CommentDTO;
 import com.reddot.app.dto.response.QuestionDTO;
+import com.reddot.app.dto.response.ShallowUserDTO;
+import com.reddot.app.entity.Comment;
 import com.reddot.app.entity.Question;
 import com.reddot.app.entity.User;
-import com.reddot.app.service.question.QuestionService;
 import com.reddot.app.service.system.SystemAuthentication;
+import com.reddot.app.service.user.AuthorCardCache;
+import com.reddot.app.service.viewer.ViewerState;
+import com.reddot.app.service.viewer.ViewerStateService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.context.annotation.Lazy;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 @Component
 public abstract class QuestionMapperDecorator implements QuestionAssembler {
 
@@ -20,41 +29,67 @@ public abstract class QuestionMapperDecorator implements QuestionAssembler {
     @Qualifier("delegate")
     private QuestionAssembler delegate;
     @Autowired
-    @Lazy
-    private QuestionService questionService;
+    private ViewerStateService viewerStateService;
+    @Autowired
+    private AuthorCardCache authorCardCache;
+    @Autowired
+    private CommentAssembler commentAssembler;
 
     @Override
     public QuestionDTO toDTO(Question question) {
-        QuestionDTO dto = delegate.toDTO(question);
+        return toDTOList(List.of(question)).getFirst();
+    }
+
+    @Override
+    public List<QuestionDTO> toDTOList(List<Question> list) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Integer viewerId = null;
         if (SystemAuthentication.isLoggedIn(authentication)) {
-            User user = (User) authentication.getPrincipal();
-            dto.setUpvoted(isQuestionUpvoted(question, user.getId()));
-            dto.setDownvoted(isQuestionDownvoted(question, user.getId()));
-            dto.setBookmarked(isQuestionBookmark(question, user.getId()));
+            viewerId = ((User) authentication.getPrincipal()).getId();
         }
-        return dto;
+        return toDTOList(list, viewerId);
     }
 
-    private Boolean isQuestionUpvoted(Question question, Integer userId) {
-        if (userId != null) {
-            return questionService.isQuestionUpvotedByUser(question.getId(), userId);
+    @Override
+    public List<QuestionDTO> toDTOList(List<Question> list, Integer viewerId) {
+        // the delegate maps item by item without any viewer lookup
+        List<QuestionDTO> dtoList = delegate.toDTOList(list);
+        if (viewerId != null && !dtoList.isEmpty()) {
+            List<Integer> ids = dtoList.stream().map(QuestionDTO::getQuestionId).toList();
+            ViewerState state = viewerStateService.forQuestions(viewerId, ids);
+            dtoList.forEach(dto -> {
+                dto.setUpvoted(state.isUpvoted(dto.getQuestionId()));
+                dto.setDownvoted(state.isDownvoted(dto.getQuestionId()));
+                dto.setBookmarked(state.isBookmarked(dto.getQuestionId()));
+            });
         }
-        return null;
+        setAuthors(list, dtoList);
+        setComments(list, dtoList, viewerId);
+        return dtoList;
     }
 
-    private Boolean isQuestionDownvoted(Question question, Integer userId) {
-        if (userId != null) {
-            return questionService.isQuestionDownvotedByUser(question.getId(), userId);
+    // the comments of the whole list are mapped together, one author lookup and one viewer lookup for all of them
+    private void setComments(List<Question> entities, List<QuestionDTO> dtoList, Integer viewerId) {
+        List<Comment> comments = new ArrayList<>();
+        entities.forEach(e -> comments.addAll(e.getComments()));
+        List<CommentDTO> commentDTOs = commentAssembler.toDTOList(comments, viewerId);
+        int from = 0;
+        for (int i = 0; i < dtoList.size(); i++) {
+            int to = from + entities.get(i).getComments().size();
+            dtoList.get(i).setCommentList(new ArrayList<>(commentDTOs.subList(from, to)));
+            from = to;
         }
-        return null;
     }
 
-    private Boolean isQuestionBookmark(Question question, Integer userId) {
-        if (userId != null) {
-            return questionService.isQuestionBookmarkedByUser(question.getId(), userId);
+    // the authors are lazy, only their ids are read, the cards of the whole list come from one cache lookup
+    private void setAuthors(List<Question> entities, List<QuestionDTO> dtoList) {
+        List<Integer> authorIds = entities.stream().map(e -> e.getUser() == null ? null : e.getUser().getId()).toList();
+        Map<Integer, ShallowUserDTO> cards = authorCardCache.getAll(authorIds);
+        for (int i = 0; i < dtoList.size(); i++) {
+            Integer authorId = authorIds.get(i);
+            if (authorId != null) {
+                dtoList.get(i).setAuthor(cards.get(authorId));
+            }
         }
-        return null;
     }
 }
-
@@ -2,6 +2,8 @@ package com.reddot.app.config.security;
 
 import com.reddot.app.config.security.jwt.JwtTokenFilter;
 import com.reddot.app.service.user.UserServiceManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
@@ -20,6 +22,8 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.time.Duration;
+
 @Configuration
 @EnableWebSecurity
 public class WebSecurityConfig {
@@ -42,7 +46,7 @@ public class WebSecurityConfig {
                         // Public endpoints
                         .requestMatchers("/hello", "/auth/**", "/questions/search").permitAll()
                         .requestMatchers("/users", "/users/{id:[\\d]+}").permitAll()
-                        .requestMatchers(HttpMethod.GET, "/users", "/users/{ids:[\\d,]+}/bookmarks").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/users", "/users/{ids:[\\d,]+}", "/users/{ids:[\\d,]+}/bookmarks").permitAll()
                         .requestMatchers(HttpMethod.GET, "/questions", "/questions/{ids:[\\d,]+}").permitAll()
                         .requestMatchers(HttpMethod.GET, "/comments", "/comments/{ids:[\\d,]+}").permitAll()
                         .requestMatchers(HttpMethod.GET, "/notifications", "/notifications/*").permitAll()
@@ -66,9 +70,13 @@ public class WebSecurityConfig {
         return http.build();
     }
 
+    // BCrypt on a bounded pool, see BoundedPasswordEncoder
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${reddot.security.password-hashing.threads:4}") int threads,
+                                           @Value("${reddot.security.password-hashing.queue-capacity:64}") int queueCapacity,
+                                           @Value("${reddot.security.password-hashing.timeout:5s}") Duration timeout) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), threads, queueCapacity, timeout, meterRegistry);
     }
 
     @Bean
@@ -77,10 +85,10 @@ public class WebSecurityConfig {
     }
 
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(this.userServiceManager);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 
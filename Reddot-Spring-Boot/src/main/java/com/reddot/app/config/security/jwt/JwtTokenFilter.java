@@ -1,6 +1,11 @@
 package com.reddot.app.config.security.jwt;
 
-import com.reddot.app.service.user.UserServiceManager;
+import com.reddot.app.entity.User;
+import com.reddot.app.service.auth.TokenRevocationService;
+import com.reddot.app.service.user.CachedPrincipal;
+import com.reddot.app.service.user.LastAccessWriter;
+import com.reddot.app.service.user.PrincipalCache;
+import com.reddot.app.util.JwtClaims;
 import com.reddot.app.util.JwtUtil;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
@@ -8,10 +13,8 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.NonNull;
-import org.springframework.context.annotation.Lazy;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -19,39 +22,47 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 
 // This filter will intercept requests to extract and validate the JWT token.
+// The principal is read from PrincipalCache by the user id of the token, not loaded from the database per request.
 @Component
 public class JwtTokenFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final UserServiceManager userServiceManager;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationService tokenRevocationService;
+    private final LastAccessWriter lastAccessWriter;
 
-    public JwtTokenFilter(JwtUtil jwtUtil, @Lazy UserServiceManager userServiceManager) {
+    public JwtTokenFilter(JwtUtil jwtUtil, PrincipalCache principalCache, TokenRevocationService tokenRevocationService,
+                          LastAccessWriter lastAccessWriter) {
         this.jwtUtil = jwtUtil;
-        this.userServiceManager = userServiceManager;
+        this.principalCache = principalCache;
+        this.tokenRevocationService = tokenRevocationService;
+        this.lastAccessWriter = lastAccessWriter;
     }
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String email = null;
-        String jws = null;
+        JwtClaims claims = null;
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jws = authorizationHeader.substring(7);
             try {
-                email = jwtUtil.extractEmail(jws);
+                claims = jwtUtil.verify(authorizationHeader.substring(7));
             } catch (JwtException e) {
                 logger.error("Invalid JWT token");
             }
         }
 
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userServiceManager.loadUserByEmail(email);
+        if (claims != null && !tokenRevocationService.isRevoked(claims)
+            && SecurityContextHolder.getContext().getAuthentication() == null) {
+            CachedPrincipal principal = principalCache.get(claims.userId());
 
-            if (jwtUtil.validateToken(jws, userDetails)) {
-                UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+            // the email of the token must still be the one of the user, an email change revokes the older tokens
+            if (principal != null && principal.enabled() && principal.email().equals(claims.email())) {
+                User user = principal.toUser();
+                UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
                 authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+                lastAccessWriter.touch(principal.id());
             }
         }
         filterChain.doFilter(request, response);
@@ -5,10 +5,17 @@ import com.reddot.app.dto.request.RegisterRequest;
 import com.reddot.app.dto.response.ServiceResponse;
 import com.reddot.app.dto.response.UserProfileDTO;
 import com.reddot.app.entity.User;
+import com.reddot.app.exception.BadRequestException;
 import com.reddot.app.exception.ResourceNotFoundException;
+import com.reddot.app.exception.ServiceUnavailableException;
+import com.reddot.app.service.auth.TokenRevocationService;
 import com.reddot.app.service.user.UserServiceManager;
+import com.reddot.app.util.JwtClaims;
 import com.reddot.app.util.JwtUtil;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -30,14 +37,18 @@ public class AuthenticationController {
 
     private final AuthenticationManager authenticationManager;
 
-    public AuthenticationController(JwtUtil jwtUtil, UserServiceManager userServiceManager, AuthenticationManager authenticationManager) {
+    private final TokenRevocationService tokenRevocationService;
+
+    public AuthenticationController(JwtUtil jwtUtil, UserServiceManager userServiceManager, AuthenticationManager authenticationManager,
+                                    TokenRevocationService tokenRevocationService) {
         this.jwtUtil = jwtUtil;
         this.userServiceManager = userServiceManager;
         this.authenticationManager = authenticationManager;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @PostMapping("/login")
-    public String createAuthenticationToken(@Valid @RequestBody LoginRequest request) {
+    public String createAuthenticationToken(@Valid @RequestBody LoginRequest request, HttpServletRequest httpRequest) {
         try {
             Authentication authentication = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
 
@@ -45,16 +56,52 @@ public class AuthenticationController {
             SecurityContext context = SecurityContextHolder.createEmptyContext();
             context.setAuthentication(authentication);
             SecurityContextHolder.setContext(context);
-            final User user = userServiceManager.loadUserByEmail(request.getEmail());
-            userServiceManager.userOnLoginUpdate(request.getEmail());
-            return jwtUtil.generateToken(user);
+            // the user loaded by the authentication provider, not queried again
+            final User user = (User) authentication.getPrincipal();
+            userServiceManager.userOnLoginUpdate(user.getId());
+            return tokenRevocationService.issue(user, httpRequest.getRemoteAddr(), httpRequest.getHeader(HttpHeaders.USER_AGENT));
         } catch (DisabledException e) {
             throw new ResourceNotFoundException("Account is not confirmed, please check your email to confirm account registration");
+        } catch (ServiceUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException(e.getMessage(), e);
         }
     }
 
+    /**
+     * Revoke the token of the request
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<ServiceResponse<Void>> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+        tokenRevocationService.revoke(verifyBearer(authorization));
+        return new ResponseEntity<>(new ServiceResponse<>(HttpStatus.OK.value(), "Logged out successfully"), HttpStatus.OK);
+    }
+
+    /**
+     * Revoke every token of the user of the request, on every device
+     */
+    @PostMapping("/logout-all")
+    public ResponseEntity<ServiceResponse<Void>> logoutAll(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+        JwtClaims claims = verifyBearer(authorization);
+        if (tokenRevocationService.isRevoked(claims)) {
+            throw new BadRequestException("Token already revoked");
+        }
+        tokenRevocationService.revokeAll(claims.userId());
+        return new ResponseEntity<>(new ServiceResponse<>(HttpStatus.OK.value(), "Logged out of all sessions successfully"), HttpStatus.OK);
+    }
+
+    private JwtClaims verifyBearer(String authorization) {
+        if (!authorization.startsWith("Bearer ")) {
+            throw new BadRequestException("Bearer token required");
+        }
+        try {
+            return jwtUtil.verify(authorization.substring(7));
+        } catch (JwtException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+
     @PostMapping("/register")
     public ResponseEntity<ServiceResponse<RegisterRequest>> register(@Valid @RequestBody RegisterRequest request) { // @Valid: validate the request body and throw Bad Request if invalid
         try {
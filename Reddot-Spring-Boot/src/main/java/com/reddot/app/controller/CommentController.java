@@ -6,6 +6,8 @@ import com.reddot.app.dto.response.ServiceResponse;
 import com.reddot.app.entity.User;
 import com.reddot.app.exception.ResourceNotFoundException;
 import com.reddot.app.service.comment.CommentService;
+import com.reddot.app.service.system.ResourceVersionService;
+import com.reddot.app.service.system.ResourceVersionService.ResourceVersion;
 import com.reddot.app.service.system.SystemAuthentication;
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.RequiredArgsConstructor;
@@ -13,6 +15,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -22,6 +25,7 @@ import java.util.List;
 public class CommentController {
 
     private final CommentService commentService;
+    private final ResourceVersionService resourceVersionService;
 
     @Operation(summary = "Reply a given comment. [auth required]",
             description = """
@@ -61,13 +65,21 @@ public class CommentController {
 
     @Operation(summary = "Returns the comments identified in {ids}.",
             description = "This method is most useful if you have a cache of comment ids obtained through other" +
-                          " means (such as /questions/{id}/comments) but suspect the data may be stale.")
+                          " means (such as /questions/{id}/comments) but suspect the data may be stale." +
+                          " Send the ETag (or for anonymous requests the Last-Modified date) of the previous response" +
+                          " back in If-None-Match (If-Modified-Since) to get an empty 304 response when nothing changed.")
     @GetMapping("/{ids}")
-    public ResponseEntity<ServiceResponse<List<CommentDTO>>> getCommentByIds(@PathVariable List<Integer> ids) {
+    public ResponseEntity<ServiceResponse<List<CommentDTO>>> getCommentByIds(@PathVariable List<Integer> ids, WebRequest request) {
         try {
             List<CommentDTO> dto;
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (SystemAuthentication.isLoggedIn(authentication)) {
+            boolean loggedIn = SystemAuthentication.isLoggedIn(authentication);
+            ResourceVersion version = resourceVersionService.ofComments(ids,
+                    loggedIn ? ((User) authentication.getPrincipal()).getId() : null);
+            if (request.checkNotModified(version.etag(), version.lastModified())) {
+                return null;
+            }
+            if (loggedIn) {
                 User user = (User) authentication.getPrincipal();
                 dto = commentService.commentGetByIdsWithUser(ids, user);
             } else {
@@ -1,25 +1,31 @@
 package com.reddot.app.controller;
 
-import com.reddot.app.dto.request.CommentPostDTO;
-import com.reddot.app.dto.request.QuestionCreateDTO;
-import com.reddot.app.dto.request.QuestionUpdateDTO;
+import com.reddot.app.dto.request.*;
 import com.reddot.app.dto.response.CommentDTO;
+import com.reddot.app.dto.response.PaginatedResponse;
 import com.reddot.app.dto.response.QuestionDTO;
 import com.reddot.app.dto.response.ServiceResponse;
 import com.reddot.app.entity.User;
 import com.reddot.app.exception.BadRequestException;
 import com.reddot.app.service.comment.CommentService;
+import com.reddot.app.service.cache.AnonymousResponseCache;
+import com.reddot.app.service.cache.AnonymousResponseCache.CachedResponse;
 import com.reddot.app.service.question.QuestionService;
+import com.reddot.app.service.system.ResourceVersionService;
+import com.reddot.app.service.system.ResourceVersionService.ResourceVersion;
 import com.reddot.app.service.system.SystemAuthentication;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/questions")
@@ -28,6 +34,8 @@ public class QuestionController {
 
     private final QuestionService questionService;
     private final CommentService commentService;
+    private final AnonymousResponseCache anonymousResponseCache;
+    private final ResourceVersionService resourceVersionService;
 
     @Operation(summary = "Creates a comment on the given question. [auth required] ",
             description = """
@@ -65,39 +73,66 @@ public class QuestionController {
         return ResponseEntity.ok(new ServiceResponse<>(200, "Question created successfully", questionDTO));
     }
 
-    @Operation(summary = "Gets all the questions on the site.",
+    @Operation(summary = "Gets the questions on the site, one page at a time.",
             description = """
-                    Use this method to retrieve all questions include some user-specific properties related to the questions.
+                    Use this method to page through questions include some user-specific properties related to the questions.
                     
-                    This method returns a list of questions.""")
+                    Supported sorts are newest (default), score, active and hot (score and comments decayed by age).
+                    Pass the next_cursor of a page as the cursor parameter to get the following page, it is absent on the last page.
+                    
+                    Pass view=summary to get question summaries (excerpt, counts, tag names and author display name)
+                    instead of full questions with their body and comments.
+                    
+                    Anonymous responses are cached and may lag behind writes by a few seconds.
+                    
+                    This method returns a page of questions.""")
     @GetMapping
-    public ResponseEntity<ServiceResponse<List<QuestionDTO>>> getAllQuestions() {
+    public ResponseEntity<?> getAllQuestions(
+            @RequestParam(required = false, defaultValue = "newest") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false, defaultValue = "full") String view) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        List<QuestionDTO> list;
-        if (SystemAuthentication.isLoggedIn(authentication)) {
-            User user = (User) authentication.getPrincipal();
-            list = questionService.questionGetAllWithUser(user, false);
-        } else {
-            list = questionService.questionGetAll();
+        FeedCriteria criteria = new FeedCriteria(QuestionSort.from(sort), cursor, size);
+        boolean summary = isSummaryView(view);
+        if (!SystemAuthentication.isLoggedIn(authentication)) {
+            String key = "questions:" + criteria.getSort() + ":" + criteria.getCursor() + ":" + criteria.getSize() + ":" + summary;
+            return cachedJson(key, () -> new ServiceResponse<>(200, "Questions retrieved successfully",
+                    summary ? questionService.questionSummaryGetAll(criteria, null) : questionService.questionGetAll(criteria)));
         }
-        return ResponseEntity.ok(new ServiceResponse<>(200, "Questions retrieved successfully", list));
+        User user = (User) authentication.getPrincipal();
+        PaginatedResponse<?> page = summary
+                ? questionService.questionSummaryGetAll(criteria, user.getId())
+                : questionService.questionGetAllWithUser(user, criteria, false);
+        return ResponseEntity.ok(new ServiceResponse<>(200, "Questions retrieved successfully", page));
     }
 
     @Operation(summary = "Returns questions identified in {ids}.",
             description = """
                     Use this method to retrieve a list of questions by a list of ids, include some user-specific properties related to the question.
                     
+                    Responses carry an ETag, send it back in If-None-Match to get an empty 304 response when nothing changed.
+                    Anonymous responses are cached and may lag behind writes by a few seconds.
+                    
                     This method returns a list of questions.""")
     @GetMapping("/{ids}")
-    public ResponseEntity<ServiceResponse<List<QuestionDTO>>> getQuestionByIds(@PathVariable List<Integer> ids) {
-        List<QuestionDTO> list;
+    public ResponseEntity<?> getQuestionByIds(@PathVariable List<Integer> ids, WebRequest request) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (SystemAuthentication.isLoggedIn(authentication)) {
-            User user = (User) authentication.getPrincipal();
-            list = questionService.questionGetByIdsWithUser(ids, user);
-        } else {
-            list = questionService.questionGetByIds(ids, false);
+        if (!SystemAuthentication.isLoggedIn(authentication)) {
+            // validated against the cached body, without touching the database
+            CachedResponse cached = anonymousResponseCache.getResponse("questions/" + ids, () -> new ServiceResponse<>(200,
+                    "Question retrieved successfully", questionService.questionGetByIds(ids, false)));
+            if (request.checkNotModified(cached.etag())) {
+                return null;
+            }
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(cached.body());
         }
+        User user = (User) authentication.getPrincipal();
+        ResourceVersion version = resourceVersionService.ofQuestions(ids, user.getId());
+        if (request.checkNotModified(version.etag())) {
+            return null;
+        }
+        List<QuestionDTO> list = questionService.questionGetByIdsWithUser(ids, user);
         return ResponseEntity.ok(new ServiceResponse<>(200, "Question retrieved successfully", list));
     }
 
@@ -134,17 +169,30 @@ public class QuestionController {
         return ResponseEntity.ok(new ServiceResponse<>(200, "Question deleted successfully", "Question deleted successfully"));
     }
 
+    @Operation(summary = "Search questions by content or author display name.",
+            description = """
+                    Use this method to search public questions whose content contains {content},
+                    or whose author display name contains {displayName}.
+                    
+                    One of the two parameters is required, a request with neither is rejected with a 400.
+                    To page through every question use GET /questions.
+                    """)
     @GetMapping("/search")
-    public List<QuestionDTO> searchQuestions(
+    public List<?> searchQuestions(
             @RequestParam(value = "content", required = false) String content,
-            @RequestParam(value = "displayName", required = false) String displayName) {
-        if (content != null && !content.isBlank()) {
-            return questionService.searchByKeyword(content);
-        } else if (displayName != null && !displayName.isBlank()) {
-            return questionService.searchByDisplayName(displayName);
-        } else {
-            return questionService.questionGetAll();
+            @RequestParam(value = "displayName", required = false) String displayName,
+            @RequestParam(required = false, defaultValue = "full") String view) {
+        boolean byContent = content != null && !content.isBlank();
+        if (!byContent && (displayName == null || displayName.isBlank())) {
+            throw new BadRequestException("content or displayName is required, use GET /questions to list every question");
+        }
+        if (isSummaryView(view)) {
+            Integer viewerId = getViewerId(SecurityContextHolder.getContext().getAuthentication());
+            return byContent
+                    ? questionService.searchSummaryByKeyword(content, viewerId)
+                    : questionService.searchSummaryByDisplayName(displayName, viewerId);
         }
+        return byContent ? questionService.searchByKeyword(content) : questionService.searchByDisplayName(displayName);
     }
 
     @Operation(summary = "Bookmarks the question identified in {id}. [auth required]",
@@ -182,4 +230,23 @@ public class QuestionController {
         QuestionDTO dto = questionService.questionUnBookmark(id, user.getId());
         return ResponseEntity.ok(new ServiceResponse<>(200, "Question unbookmarked successfully", dto));
     }
-}
\ No newline at end of file
+
+    private static boolean isSummaryView(String view) {
+        if ("summary".equalsIgnoreCase(view)) {
+            return true;
+        }
+        if ("full".equalsIgnoreCase(view)) {
+            return false;
+        }
+        throw new BadRequestException("Unsupported view: " + view);
+    }
+
+    private static Integer getViewerId(Authentication authentication) {
+        return SystemAuthentication.isLoggedIn(authentication) ? ((User) authentication.getPrincipal()).getId() : null;
+    }
+
+    // serve an anonymous response from the cache, the body is already serialized
+    private ResponseEntity<byte[]> cachedJson(String key, Supplier<ServiceResponse<?>> loader) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(anonymousResponseCache.get(key, loader));
+    }
+}
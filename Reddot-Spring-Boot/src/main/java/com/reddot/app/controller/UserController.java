@@ -1,13 +1,17 @@
 package com.reddot.app.controller;
 
+import com.reddot.app.dto.request.FeedCriteria;
+import com.reddot.app.dto.request.QuestionSort;
 import com.reddot.app.dto.request.SearchCriteria;
 import com.reddot.app.dto.response.BookmarkDTO;
 import com.reddot.app.dto.response.PaginatedResponse;
 import com.reddot.app.dto.response.QuestionDTO;
 import com.reddot.app.dto.response.ServiceResponse;
+import com.reddot.app.dto.response.ShallowUserDTO;
 import com.reddot.app.exception.ResourceNotFoundException;
 import com.reddot.app.service.bookmark.BookmarkService;
 import com.reddot.app.service.question.QuestionService;
+import com.reddot.app.service.user.UserServiceManager;
 import io.swagger.v3.oas.annotations.Operation;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
@@ -22,10 +26,28 @@ public class UserController {
 
     private final QuestionService questionService;
     private final BookmarkService bookmarkService;
+    private final UserServiceManager userServiceManager;
 
-    public UserController(QuestionService questionService, BookmarkService bookmarkService) {
+    public UserController(QuestionService questionService, BookmarkService bookmarkService,
+                          UserServiceManager userServiceManager) {
         this.questionService = questionService;
         this.bookmarkService = bookmarkService;
+        this.userServiceManager = userServiceManager;
+    }
+
+    /**
+     * Get the author cards of the users in {ids}, in the order of the ids.
+     * A single id is served the full profile, see {@link UserManagementController#getUserProfileById(Integer)}.
+     *
+     * @param ids List of at least two user ids
+     * @return List of author cards, without the unknown ids
+     */
+    @Operation(summary = "Get the author cards of several users",
+            description = "Display name, avatar, website and badge counts by tier of each user")
+    @GetMapping("/{ids:\\d+(?:,\\d+)+}")
+    public ResponseEntity<ServiceResponse<List<ShallowUserDTO>>> getUserCards(@PathVariable("ids") List<Integer> ids) {
+        List<ShallowUserDTO> cards = userServiceManager.cardGetByIds(ids);
+        return new ResponseEntity<>(new ServiceResponse<>(HttpStatus.OK.value(), "Retrieve users successfully", cards), HttpStatus.OK);
     }
 
     /**
@@ -57,15 +79,18 @@ public class UserController {
         }
     }
 
-    @Operation(summary = "Get all questions belonging to a user.",
-            description = "This method returns a list of questions that belong to a user."
+    @Operation(summary = "Get the questions belonging to a user, one page at a time.",
+            description = "This method returns a page of questions that belong to a user, sorted by score (default), newest or active."
     )
     @GetMapping("/{id}/questions")
-    public ResponseEntity<ServiceResponse<List<QuestionDTO>>> getUserQuestions(
+    public ResponseEntity<ServiceResponse<PaginatedResponse<QuestionDTO>>> getUserQuestions(
             @PathVariable Integer id,
-            @RequestParam(required = false, defaultValue = "score") String sort) {
+            @RequestParam(required = false, defaultValue = "score") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<QuestionDTO> questions = questionService.questionGetAllOfUserId(id, sort, false);
+            FeedCriteria criteria = new FeedCriteria(QuestionSort.from(sort), cursor, size);
+            PaginatedResponse<QuestionDTO> questions = questionService.questionGetAllOfUserId(id, criteria, false);
             return new ResponseEntity<>(
                     new ServiceResponse<>(
                             HttpStatus.OK.value(),
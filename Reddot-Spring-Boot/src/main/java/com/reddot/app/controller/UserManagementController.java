@@ -40,7 +40,7 @@ public class UserManagementController {
 
     @Operation(summary = "Get user profile by id",
             description = "Get user profile by id")
-    @GetMapping("/{id}")
+    @GetMapping("/{id:\\d+}")
     public ResponseEntity<ServiceResponse<UserProfileDTO>> getUserProfileById(@PathVariable Integer id) {
         try {
             UserProfileDTO profileDTO = userServiceManager.profileGetById(id);
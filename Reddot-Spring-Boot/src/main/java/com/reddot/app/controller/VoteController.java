@@ -1,6 +1,9 @@
 package com.reddot.app.controller;
 
 import com.reddot.app.dto.request.VoteDto;
+import com.reddot.app.dto.response.ServiceResponse;
+import com.reddot.app.dto.response.VoteStateDTO;
+import com.reddot.app.entity.User;
 import com.reddot.app.service.vote.VoteService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -8,7 +11,6 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
-@RequestMapping("/questions")
 public class VoteController {
 
     private final VoteService voteService;
@@ -18,14 +20,25 @@ public class VoteController {
     }
 
     // API để vote (toggle vote)
-    @PostMapping("/{id}/vote")
+    @PostMapping("/questions/{id}/vote")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<String> voteQuestion(
+    public ResponseEntity<ServiceResponse<VoteStateDTO>> voteQuestion(
             @PathVariable("id") Integer questionId,
             @RequestBody VoteDto voteDto,
             Authentication auth) {
-        String username = auth.getName();
-        voteService.voteQuestion(questionId, voteDto, username);
-        return ResponseEntity.ok("Vote processed successfully");
+        User user = (User) auth.getPrincipal();
+        VoteStateDTO state = voteService.voteQuestion(questionId, voteDto, user.getId());
+        return ResponseEntity.ok(new ServiceResponse<>(200, "Vote processed successfully", state));
+    }
+
+    @PostMapping("/comments/{id}/vote")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ServiceResponse<VoteStateDTO>> voteComment(
+            @PathVariable("id") Integer commentId,
+            @RequestBody VoteDto voteDto,
+            Authentication auth) {
+        User user = (User) auth.getPrincipal();
+        VoteStateDTO state = voteService.voteComment(commentId, voteDto, user.getId());
+        return ResponseEntity.ok(new ServiceResponse<>(200, "Vote processed successfully", state));
     }
 }
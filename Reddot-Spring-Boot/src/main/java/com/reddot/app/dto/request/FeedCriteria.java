@@ -0,0 +1,55 @@
+package com.reddot.app.dto.request;
+
+import com.reddot.app.exception.BadRequestException;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset pagination request for the question feed.
+ * <p>
+ * {@code cursor} is the opaque {@code next_cursor} returned with the previous page, null for the first page.
+ * It encodes the sort key and id of the last question already sent,
+ * so the next page starts strictly after it without counting or skipping rows.
+ */
+@Getter
+public class FeedCriteria {
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    private final QuestionSort sort;
+    private final String cursor;
+    private final int size;
+
+    public FeedCriteria(QuestionSort sort, String cursor, Integer size) {
+        this.sort = sort == null ? QuestionSort.NEWEST : sort;
+        this.cursor = (cursor == null || cursor.isBlank()) ? null : cursor;
+        this.size = size == null ? DEFAULT_SIZE : Math.clamp(size, 1, MAX_SIZE);
+    }
+
+    /**
+     * Decoded position of the last question of the previous page.
+     *
+     * @param key the sort key as text (timestamp or score)
+     * @param id  the question id, used as tie-breaker
+     */
+    public record Cursor(String key, int id) {
+        private static final String SEPARATOR = "|";
+
+        public static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int i = raw.lastIndexOf(SEPARATOR);
+                return new Cursor(raw.substring(0, i), Integer.parseInt(raw.substring(i + 1)));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                throw new BadRequestException("Invalid cursor");
+            }
+        }
+
+        public String encode() {
+            String raw = key + SEPARATOR + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.reddot.app.dto.request;
+
+import com.reddot.app.exception.BadRequestException;
+
+/**
+ * Orderings supported by the question feed.
+ * <ul>
+ *     <li>{@code NEWEST} - creation date, newest first</li>
+ *     <li>{@code SCORE} - {@code upvotes * 3 - downvotes}, highest first</li>
+ *     <li>{@code ACTIVE} - last activity (edit, comment, vote), most recent first</li>
+ *     <li>{@code HOT} - score and comments decayed by age, read from the in-memory ranking</li>
+ * </ul>
+ * Every mode breaks ties by descending id so the order is total and can be resumed from a cursor.
+ */
+public enum QuestionSort {
+    NEWEST,
+    SCORE,
+    ACTIVE,
+    HOT;
+
+    public static QuestionSort from(String value) {
+        if (value == null || value.isBlank()) {
+            return NEWEST;
+        }
+        for (QuestionSort sort : values()) {
+            if (sort.name().equalsIgnoreCase(value.trim())) {
+                return sort;
+            }
+        }
+        throw new BadRequestException("Unsupported sort `" + value + "`");
+    }
+}
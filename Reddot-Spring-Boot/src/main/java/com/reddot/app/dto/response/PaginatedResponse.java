@@ -7,14 +7,22 @@ import org.springframework.data.domain.Page;
 
 import java.util.List;
 
+/**
+ * Wraps a slice of results.
+ * <p>
+ * Offset pages fill {@code page}, {@code totalElements} and {@code totalPages}.
+ * Keyset (cursor) pages leave them null and fill {@code nextCursor} instead,
+ * which is null on the last page.
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class PaginatedResponse<T> {
-    private int page;
+    private Integer page;
     private int size;
-    private long totalElements;
-    private int totalPages;
+    private Long totalElements;
+    private Integer totalPages;
+    private String nextCursor;
     private List<T> content;
 
     public PaginatedResponse(Page<T> page) {
@@ -24,4 +32,10 @@ public class PaginatedResponse<T> {
         this.totalPages = page.getTotalPages();
         this.content = page.getContent();
     }
-}
\ No newline at end of file
+
+    public PaginatedResponse(List<T> content, int size, String nextCursor) {
+        this.size = size;
+        this.nextCursor = nextCursor;
+        this.content = content;
+    }
+}
@@ -0,0 +1,55 @@
+package com.reddot.app.dto.response;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This type represents a question in a list, without its body, comments or author object.
+ * It is read with a constructor projection, so no Question, Comment or Vote entity is loaded to build it.
+ * The upvoted, downvoted, and bookmarked fields can only be queried for with an access_token.
+ */
+@Getter
+@Setter
+@ToString
+public class QuestionSummaryDTO {
+    public static final int EXCERPT_LENGTH = 200;
+
+    private Integer questionId;
+    private String title;
+    private String excerpt;
+    private LocalDateTime creationDate;
+    private LocalDateTime lastEditDate;
+    private LocalDateTime lastActivityDate;
+    private int upvotes;
+    private int downvotes;
+    private int score;
+    private int commentCount;
+    private boolean upvoted;
+    private boolean downvoted;
+    private boolean bookmarked;
+    private List<String> tags = new ArrayList<>();
+    private Integer authorId;
+    private String authorDisplayName;
+
+    public QuestionSummaryDTO(Integer questionId, String title, String excerpt, LocalDateTime creationDate,
+                              LocalDateTime lastEditDate, LocalDateTime lastActivityDate, int upvotes, int downvotes,
+                              int score, int commentCount, Integer authorId, String authorDisplayName) {
+        this.questionId = questionId;
+        this.title = title;
+        this.excerpt = excerpt;
+        this.creationDate = creationDate;
+        this.lastEditDate = lastEditDate;
+        this.lastActivityDate = lastActivityDate;
+        this.upvotes = upvotes;
+        this.downvotes = downvotes;
+        this.score = score;
+        this.commentCount = commentCount;
+        this.authorId = authorId;
+        this.authorDisplayName = authorDisplayName;
+    }
+}
@@ -1,7 +1,6 @@
 package com.reddot.app.dto.response;
 
-import java.util.HashMap;
-import java.util.Set;
+import java.util.Map;
 
 /**
  * This type represents a user, but omits many of the fields found on the full User Profile type.
@@ -14,9 +13,5 @@ import java.util.Set;
  * @param badgeCounts  This type represents the total Badges, segregated by rank, a user has earned. e.g.{"bronze": 1,"silver": 2,"gold": 3}
  */
 public record ShallowUserDTO(Integer userId, String displayName, String profileImage, String websiteLink,
-                             Set<BadgeCount> badgeCounts) {
-
-    // Value Object
-    public record BadgeCount(HashMap<String, Integer> badgeCounts) {
-    }
+                             Map<String, Integer> badgeCounts) {
 }
@@ -18,4 +18,5 @@ public class UserProfileDTO {
     private LocalDate dob;
     private String location;
     private String websiteUrl;
+    private UserStatsDTO stats;
 }
@@ -0,0 +1,15 @@
+package com.reddot.app.dto.response;
+
+import lombok.Data;
+
+@Data
+public class UserStatsDTO {
+    private int questionCount;
+    private int answerCount;
+    private int questionUpvotes;
+    private int questionDownvotes;
+    private int answerUpvotes;
+    private int answerDownvotes;
+    private int badgeCount;
+    private int followerCount;
+}
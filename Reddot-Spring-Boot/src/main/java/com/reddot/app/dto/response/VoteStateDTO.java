@@ -0,0 +1,25 @@
+package com.reddot.app.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * The state of a post right after the viewer voted on it: the viewer's vote direction and the post counters.
+ * Counters include votes that are not written to the post row yet.
+ */
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class VoteStateDTO {
+    private Integer postId;
+    private boolean upvoted;
+    private boolean downvoted;
+    private int upvotes;
+    private int downvotes;
+    private int score;
+}
@@ -1,13 +1,18 @@
 package com.reddot.app.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.io.Serial;
 
 @Entity(name = "badges")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "badges")
 @Setter
 @Getter
 @NoArgsConstructor
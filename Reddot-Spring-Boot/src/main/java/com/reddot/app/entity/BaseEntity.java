@@ -10,17 +10,20 @@ import org.springframework.data.domain.Persistable;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
-import java.util.Collections;
-import java.util.List;
 import java.util.UUID;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 @Getter
 @Setter
 @MappedSuperclass
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public abstract class BaseEntity implements Persistable<Integer>, Serializable {
+    /**
+     * Hibernate filter restricting queries and collections to {@link STATUS#PUBLIC} rows.
+     * It is defined on {@link Question} and toggled per session by {@code VisibilityFilter}.
+     */
+    public static final String PUBLIC_FILTER = "publicOnly";
+    public static final String PUBLIC_CONDITION = "status = 'PUBLIC'";
+
     @Transient
     @EqualsAndHashCode.Include
     @JsonIgnore
@@ -43,13 +46,6 @@ public abstract class BaseEntity implements Persistable<Integer>, Serializable {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
-    // generic filter list method
-    public static <T> List<T> filterList(List<T> items, Predicate<T> predicate) {
-        if (items == null)
-            return Collections.emptyList();
-        return items.stream().filter(predicate).collect(Collectors.toList());
-    }
-
     public void softRm() {
         this.setStatus(STATUS.DELETED);
     }
@@ -6,11 +6,13 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Filter;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity(name = "comments")
+@Filter(name = BaseEntity.PUBLIC_FILTER)
 @Setter
 @Getter
 @NoArgsConstructor
@@ -37,7 +39,8 @@ public class Comment extends BaseEntity {
      */
     @Column(name = "response_to_id")
     private Integer responseTo;
-    @ManyToOne
+    // rendered from AuthorCardCache, only the id is read on lists
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id")
     private User user;
     @Column(name = "report_count", nullable = false)
@@ -1,5 +1,6 @@
 package com.reddot.app.entity;
 
+import com.reddot.app.service.event.EntityEventPublisher;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -8,6 +9,7 @@ import java.time.LocalDate;
 
 @Entity(name = "following")
 @IdClass(Follow.FollowId.class)
+@EntityListeners(EntityEventPublisher.class)
 @Setter
 @Getter
 @NoArgsConstructor
@@ -6,7 +6,12 @@ import lombok.*;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 
+/**
+ * A token issued at login, by its {@code jti} claim. Revoked tokens have a {@code revokedAt},
+ * rows are deleted once the token expired.
+ */
 @Entity(name = "jwt_tokens")
+@Table(indexes = @Index(name = "idx_jwt_tokens_expiration", columnList = "expiration_before"))
 @Setter
 @Getter
 @NoArgsConstructor
@@ -17,7 +22,7 @@ public class JwtToken {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
-    @Column(nullable = false)
+    @Column(nullable = false, unique = true)
     private String value;
 
     @Column(name = "expiration_before", columnDefinition = "TIMESTAMP")
@@ -32,12 +37,14 @@ public class JwtToken {
     @Column(name = "device_name")
     private String deviceName;
 
+    @Column(name = "revoked_at", columnDefinition = "TIMESTAMP")
+    private Timestamp revokedAt;
+
     @ManyToOne(optional = false)
     @JoinColumn(name = "owner_id")
     private User user;
 
     @PrePersist
-    @PreUpdate
     public void onPreAction() {
         LocalDateTime now = LocalDateTime.now();
         this.setIssuedAt(Timestamp.valueOf(now));
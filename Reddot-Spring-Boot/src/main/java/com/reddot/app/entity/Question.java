@@ -4,6 +4,8 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.reddot.app.entity.enumeration.VOTETYPE;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.FilterDef;
 
 import java.io.Serial;
 import java.time.LocalDateTime;
@@ -14,6 +16,24 @@ import java.util.Set;
 
 @Builder
 @Entity(name = "questions")
+// authors are not part of the graphs: they are rendered from AuthorCardCache, so only their ids are read
+@NamedEntityGraph(name = Question.DETAIL_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode("tags"),
+                @NamedAttributeNode("comments")})
+@NamedEntityGraph(name = Question.MODERATION_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode("tags"),
+                @NamedAttributeNode(value = "votes", subgraph = "voter")},
+        subgraphs = @NamedSubgraph(name = "voter", attributeNodes = @NamedAttributeNode("user")))
+@FilterDef(name = BaseEntity.PUBLIC_FILTER, defaultCondition = BaseEntity.PUBLIC_CONDITION)
+@Filter(name = BaseEntity.PUBLIC_FILTER)
+@Table(indexes = {
+        // keyset indexes backing the question feed, see QuestionSort
+        @Index(name = "idx_questions_feed_newest", columnList = "status, created_at, id"),
+        @Index(name = "idx_questions_feed_score", columnList = "status, score, id"),
+        @Index(name = "idx_questions_feed_active", columnList = "status, last_activity_at, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -21,6 +41,15 @@ import java.util.Set;
 @EqualsAndHashCode(callSuper = true, onlyExplicitlyIncluded = true)
 public class Question extends BaseEntity {
 
+    /**
+     * Tags and public comments, for the question page.
+     */
+    public static final String DETAIL_GRAPH = "Question.detail";
+    /**
+     * Tags and every vote with its voter, for moderators; comments stay lazy.
+     */
+    public static final String MODERATION_GRAPH = "Question.moderation";
+
     @Serial
     private static final long serialVersionUID = 1L;
 
@@ -35,7 +64,26 @@ public class Question extends BaseEntity {
 
     private int downvotes;
 
-    @ManyToOne
+    /**
+     * Stored copy of {@link #getScore()}, kept in sync on every flush so the feed can be ordered by an index.
+     */
+    @Column(nullable = false)
+    private int score;
+
+    /**
+     * Last time the question was created, edited, commented or voted on.
+     */
+    @Column(name = "last_activity_at")
+    private LocalDateTime lastActivityAt;
+
+    /**
+     * Number of PUBLIC comments and replies on the question.
+     * Maintained with atomic updates by the comment service, never written from the entity.
+     */
+    @Column(name = "comment_count", nullable = false, updatable = false)
+    private int commentCount;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
     @Column(name = "report_count", nullable = false)
@@ -44,6 +92,7 @@ public class Question extends BaseEntity {
     @Builder.Default
     @OneToMany(mappedBy = "question",
             cascade = CascadeType.ALL)
+    @Filter(name = BaseEntity.PUBLIC_FILTER)
     private List<Comment> comments = new ArrayList<>();
 
     @Builder.Default
@@ -61,7 +110,7 @@ public class Question extends BaseEntity {
     @OneToMany(mappedBy = "question",
             cascade = CascadeType.ALL,
             orphanRemoval = true,
-            fetch = FetchType.EAGER)
+            fetch = FetchType.LAZY)
     private List<Vote> votes = new ArrayList<>();
 
 
@@ -102,7 +151,19 @@ public class Question extends BaseEntity {
         return this.upvotes * 3 - this.downvotes;
     }
 
-    public void filterPublicAssociation() {
-        this.comments = filterList(this.comments, BaseEntity::isPublic);
+    @Override
+    @PrePersist
+    public void prePersist() {
+        super.prePersist();
+        this.score = getScore();
+        this.lastActivityAt = getCreatedAt();
+    }
+
+    @Override
+    @PreUpdate
+    public void preUpdate() {
+        super.preUpdate();
+        this.score = getScore();
+        this.lastActivityAt = getUpdatedAt();
     }
 }
\ No newline at end of file
@@ -1,11 +1,10 @@
 package com.reddot.app.entity;
 
 import com.reddot.app.entity.enumeration.ROLENAME;
-import jakarta.persistence.Column;
-import jakarta.persistence.Entity;
-import jakarta.persistence.EnumType;
-import jakarta.persistence.Enumerated;
+import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.security.core.SpringSecurityCoreVersion;
 import org.springframework.util.Assert;
 
@@ -15,6 +14,8 @@ import java.io.Serial;
 @Getter
 @Setter
 @Entity(name = "roles")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "roles")
 @EqualsAndHashCode(callSuper = true)
 public class Role extends BaseEntity {
     @Serial
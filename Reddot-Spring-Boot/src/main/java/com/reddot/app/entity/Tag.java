@@ -1,13 +1,12 @@
 package com.reddot.app.entity;
 
-import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
-import jakarta.persistence.Id;
+import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * The {@code Tag} class represents a tag entity.
@@ -19,6 +18,8 @@ import lombok.NoArgsConstructor;
  * <p>
  */
 @Entity(name = "tags")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "tags")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -4,7 +4,10 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.SpringSecurityCoreVersion;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -23,6 +26,9 @@ import java.util.stream.Collectors;
 @EqualsAndHashCode(callSuper = true, onlyExplicitlyIncluded = true)
 @NoArgsConstructor
 @Entity(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@NaturalIdCache(region = "users-by-username")
 public class User extends BaseEntity implements UserDetails {
     @Serial
     private static final long serialVersionUID = SpringSecurityCoreVersion.SERIAL_VERSION_UID;
@@ -33,7 +39,7 @@ public class User extends BaseEntity implements UserDetails {
     private String username;
 
     // TODO: implement hashing mail
-    @NaturalId(mutable = true)
+    // unique but not part of the natural id, so users can be loaded from the natural-id cache by username alone
     @Column(unique = true, nullable = false)
     private String email;
 
@@ -52,7 +58,8 @@ public class User extends BaseEntity implements UserDetails {
 
     private String provider;
 
-    @Column(name = "last_access")
+    // written in batches by LastAccessWriter only
+    @Column(name = "last_access", updatable = false)
     private LocalDateTime lastAccess;
     @Column(name = "violation_count", nullable = false)
     private int violationCount = 0;
@@ -70,6 +77,7 @@ public class User extends BaseEntity implements UserDetails {
             CascadeType.REFRESH,
             CascadeType.MERGE},
             fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users.roles")
     @JoinTable(name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
             inverseJoinColumns = @JoinColumn(name = "role_id"))
@@ -1,5 +1,6 @@
 package com.reddot.app.entity;
 
+import com.reddot.app.service.event.EntityEventPublisher;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -7,6 +8,7 @@ import java.io.Serializable;
 import java.time.LocalDateTime;
 
 @Entity(name = "user_badges")
+@EntityListeners(EntityEventPublisher.class)
 @Setter
 @Getter
 @NoArgsConstructor
@@ -0,0 +1,54 @@
+package com.reddot.app.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model of the profile counters of a user, one row per user.
+ * <p>
+ * Rows are only written with SQL: incremented by {@code UserStatsUpdater} as posts, votes, badges and follows
+ * are committed, and recomputed by {@code UserStatsService#rebuild()}.
+ * Questions and answers count PUBLIC posts only; votes count on every post of the user.
+ */
+@Entity(name = "user_stats")
+@Immutable
+@Getter
+@NoArgsConstructor
+public class UserStats {
+    @Id
+    @Column(name = "user_id")
+    private Integer userId;
+
+    @Column(name = "question_count", nullable = false)
+    private int questionCount;
+
+    @Column(name = "answer_count", nullable = false)
+    private int answerCount;
+
+    @Column(name = "question_upvotes", nullable = false)
+    private int questionUpvotes;
+
+    @Column(name = "question_downvotes", nullable = false)
+    private int questionDownvotes;
+
+    @Column(name = "answer_upvotes", nullable = false)
+    private int answerUpvotes;
+
+    @Column(name = "answer_downvotes", nullable = false)
+    private int answerDownvotes;
+
+    @Column(name = "badge_count", nullable = false)
+    private int badgeCount;
+
+    @Column(name = "follower_count", nullable = false)
+    private int followerCount;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
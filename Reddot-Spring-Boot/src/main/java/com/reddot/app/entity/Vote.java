@@ -4,6 +4,8 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.*;
 
 import java.io.Serial;
@@ -16,6 +18,11 @@ import java.io.Serial;
  * A vote is associated with a user.
  */
 @Entity(name = "votes")
+// one vote per user and post, the vote toggle relies on it
+@Table(uniqueConstraints = {
+        @UniqueConstraint(name = "uk_votes_user_question", columnNames = {"user_id", "question_id"}),
+        @UniqueConstraint(name = "uk_votes_user_comment", columnNames = {"user_id", "comment_id"})
+})
 @Setter
 @Getter
 @RequiredArgsConstructor
@@ -25,7 +32,7 @@ public class Vote extends BaseEntity {
     @Serial
     private static final long serialVersionUID = 1L;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
@@ -37,7 +44,7 @@ public class Vote extends BaseEntity {
      * This field is optional.
      * </p>
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "question_id")
     private Question question;
 
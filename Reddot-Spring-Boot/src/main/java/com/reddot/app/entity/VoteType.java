@@ -3,8 +3,12 @@ package com.reddot.app.entity;
 import com.reddot.app.entity.enumeration.VOTETYPE;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity(name = "vote_types")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "vote_types")
 @Setter
 @Getter
 @NoArgsConstructor
@@ -59,4 +59,11 @@ public class GlobalExceptionHandler {
         ErrorObject errorObject = new ErrorObject(HttpStatus.NOT_FOUND.value(), ex.getMessage(), request.getDescription(false));
         return new ResponseEntity<>(errorObject, HttpStatus.NOT_FOUND);
     }
-}
\ No newline at end of file
+
+    @ExceptionHandler({ServiceUnavailableException.class})
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ResponseEntity<ErrorObject> handleServiceUnavailableException(Exception ex, WebRequest request) {
+        ErrorObject errorObject = new ErrorObject(HttpStatus.SERVICE_UNAVAILABLE.value(), ex.getMessage(), request.getDescription(false));
+        return new ResponseEntity<>(errorObject, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+}
@@ -0,0 +1,12 @@
+package com.reddot.app.exception;
+
+import java.io.Serial;
+
+public class ServiceUnavailableException extends RuntimeException {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
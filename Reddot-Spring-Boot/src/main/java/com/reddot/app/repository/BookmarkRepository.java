@@ -6,9 +6,12 @@ import lombok.NonNull;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,4 +24,7 @@ public interface BookmarkRepository extends JpaRepository<Bookmark, Integer>, Pa
     Page<Bookmark> findByUser_IdIn(List<Integer> userIds, Pageable pageable);
 
     Optional<Bookmark> findByUser_IdAndQuestion_Id(Integer userId, Integer questionId);
-}
\ No newline at end of file
+
+    @Query("SELECT b.question.id FROM bookmarks b WHERE b.user.id = :userId AND b.question.id IN :questionIds")
+    List<Integer> findBookmarkedQuestionIdsByUserId(@Param("userId") Integer userId, @Param("questionIds") Collection<Integer> questionIds);
+}
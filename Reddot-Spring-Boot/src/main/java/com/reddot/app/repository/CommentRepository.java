@@ -1,14 +1,19 @@
 package com.reddot.app.repository;
 
 import com.reddot.app.entity.Comment;
+import jakarta.persistence.QueryHint;
 import lombok.NonNull;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -43,4 +48,26 @@ public interface CommentRepository extends JpaRepository<Comment, Integer> {
     long countCommentsByYear(@Param("year") int year);
 
     Boolean existsByIdAndVotes_UserIdAndVotes_VoteTypeId(Integer commentId, Integer userId, int direction);
+
+    // Columns that change the rendered comment: [id, status, createdAt, updatedAt, upvotes, downvotes]
+    @Query("SELECT c.id, c.status, c.createdAt, c.updatedAt, c.upvotes, c.downvotes FROM comments c WHERE c.id IN :ids")
+    List<Object[]> findVersionsByIds(@Param("ids") Collection<Integer> ids);
+
+    // Vote counters of the comments embedded in questions, not dated by any column: [questionId, id, upvotes, downvotes]
+    @Query("SELECT c.question.id, c.id, c.upvotes, c.downvotes FROM comments c WHERE c.question.id IN :questionIds")
+    List<Object[]> findCountersByQuestionIds(@Param("questionIds") Collection<Integer> questionIds);
+
+    // Stored vote counters: [upvotes, downvotes]
+    @Query("SELECT c.upvotes, c.downvotes FROM comments c WHERE c.id = :id")
+    List<Object[]> findCountersById(@Param("id") Integer id);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "comments"))
+    @Query(value = "UPDATE comments SET upvotes = GREATEST(upvotes + :upvotes, 0), downvotes = GREATEST(downvotes + :downvotes, 0) " +
+                   "WHERE id = :id", nativeQuery = true)
+    int addVoteCounts(@Param("id") Integer id, @Param("upvotes") int upvotes, @Param("downvotes") int downvotes);
+
+    // Authors of the posts: [id, authorId]
+    @Query("SELECT c.id, c.user.id FROM comments c WHERE c.id IN :ids")
+    List<Object[]> findAuthorIdsByIds(@Param("ids") Collection<Integer> ids);
 }
@@ -0,0 +1,42 @@
+package com.reddot.app.repository;
+
+import com.reddot.app.entity.JwtToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+public interface JwtTokenRepository extends JpaRepository<JwtToken, Integer> {
+
+    /**
+     * @return rows of jti and expiration of the revoked tokens that did not expire yet
+     */
+    @Query("SELECT t.value, t.expirationBefore FROM jwt_tokens t WHERE t.revokedAt IS NOT NULL AND t.expirationBefore > :now")
+    List<Object[]> findRevoked(@Param("now") Timestamp now);
+
+    /**
+     * @return rows of jti and expiration of the tokens of the user that are neither revoked nor expired
+     */
+    @Query("SELECT t.value, t.expirationBefore FROM jwt_tokens t " +
+           "WHERE t.user.id = :userId AND t.revokedAt IS NULL AND t.expirationBefore > :now")
+    List<Object[]> findActiveByUserId(@Param("userId") Integer userId, @Param("now") Timestamp now);
+
+    @Query("SELECT t.expirationBefore FROM jwt_tokens t WHERE t.value = :jti AND t.revokedAt IS NULL")
+    List<Timestamp> findActiveExpiration(@Param("jti") String jti);
+
+    @Modifying
+    @Query("UPDATE jwt_tokens t SET t.revokedAt = :now WHERE t.value = :jti AND t.revokedAt IS NULL")
+    int revoke(@Param("jti") String jti, @Param("now") Timestamp now);
+
+    @Modifying
+    @Query("UPDATE jwt_tokens t SET t.revokedAt = :now " +
+           "WHERE t.user.id = :userId AND t.revokedAt IS NULL AND t.expirationBefore > :now")
+    int revokeAllByUserId(@Param("userId") Integer userId, @Param("now") Timestamp now);
+
+    @Modifying
+    @Query("DELETE FROM jwt_tokens t WHERE t.expirationBefore <= :now")
+    int deleteExpired(@Param("now") Timestamp now);
+}
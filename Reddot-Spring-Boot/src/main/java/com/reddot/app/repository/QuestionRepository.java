@@ -1,18 +1,45 @@
 package com.reddot.app.repository;
 
+import com.reddot.app.dto.response.QuestionSummaryDTO;
 import com.reddot.app.entity.Question;
+import jakarta.persistence.QueryHint;
 import lombok.NonNull;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface QuestionRepository extends JpaRepository<Question, Integer> {
+    // Keyset feed clauses: each page starts strictly after the (key, id) of the previous page's last row.
+    // userId is optional and narrows the feed to one author.
+    // Visibility is applied by the session filter, see VisibilityFilter.
+    String FEED_AUTHOR = "WHERE (:userId IS NULL OR q.user.id = :userId) ";
+    String FEED_AFTER_NEWEST = "AND (q.createdAt < :createdAt OR (q.createdAt = :createdAt AND q.id < :id)) " +
+                               "ORDER BY q.createdAt DESC, q.id DESC";
+    String FEED_AFTER_SCORE = "AND (q.score < :score OR (q.score = :score AND q.id < :id)) " +
+                              "ORDER BY q.score DESC, q.id DESC";
+    String FEED_AFTER_ACTIVITY = "AND (q.lastActivityAt < :activeAt OR (q.lastActivityAt = :activeAt AND q.id < :id)) " +
+                                 "ORDER BY q.lastActivityAt DESC, q.id DESC";
+
+    // Summary projection: scalar columns only, the body is cut in the database
+    String SUMMARY_SELECT = "SELECT new com.reddot.app.dto.response.QuestionSummaryDTO(" +
+                            "q.id, q.title, SUBSTRING(q.body, 1, " + QuestionSummaryDTO.EXCERPT_LENGTH + "), " +
+                            "q.createdAt, q.updatedAt, q.lastActivityAt, q.upvotes, q.downvotes, q.score, " +
+                            "q.commentCount, " +
+                            "u.id, p.displayName) " +
+                            "FROM questions q LEFT JOIN q.user u LEFT JOIN u.person p ";
+
     @Query("SELECT COUNT(q) FROM questions q WHERE q.user.id = :userId")
     Long countQuestionsByUserId(@NonNull Integer userId); // userId kiểu Integer
 
@@ -55,11 +82,90 @@ public interface QuestionRepository extends JpaRepository<Question, Integer> {
 
     Long countUpvotesForQuestionsByUserId(Integer id);
 
+    @EntityGraph(value = Question.DETAIL_GRAPH, type = EntityGraph.EntityGraphType.LOAD)
     @Query("SELECT q FROM questions q WHERE (LOWER(q.title) LIKE %:content% OR LOWER(q.body) LIKE %:content%) AND q.status = 'PUBLIC'")
     List<Question> findByKeyword(@Param("content") String content);
 
+    @EntityGraph(value = Question.DETAIL_GRAPH, type = EntityGraph.EntityGraphType.LOAD)
     @Query("SELECT q FROM questions q WHERE LOWER(q.user.person.displayName) LIKE LOWER(CONCAT('%', :displayName, '%')) AND q.status = 'PUBLIC'")
     List<Question> findByDisplayName(@Param("displayName") String displayName);
 
     List<Question> findByUserId(Integer userId);
-}
\ No newline at end of file
+
+    @Query("SELECT q FROM questions q " + FEED_AUTHOR + FEED_AFTER_NEWEST)
+    List<Question> findFeedByNewest(@Param("userId") Integer userId,
+                                    @Param("createdAt") LocalDateTime createdAt, @Param("id") Integer id, Pageable pageable);
+
+    @Query("SELECT q FROM questions q " + FEED_AUTHOR + FEED_AFTER_SCORE)
+    List<Question> findFeedByScore(@Param("userId") Integer userId,
+                                   @Param("score") Integer score, @Param("id") Integer id, Pageable pageable);
+
+    @Query("SELECT q FROM questions q " + FEED_AUTHOR + FEED_AFTER_ACTIVITY)
+    List<Question> findFeedByActivity(@Param("userId") Integer userId,
+                                      @Param("activeAt") LocalDateTime activeAt, @Param("id") Integer id, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + FEED_AUTHOR + FEED_AFTER_NEWEST)
+    List<QuestionSummaryDTO> findSummaryFeedByNewest(@Param("userId") Integer userId,
+                                                     @Param("createdAt") LocalDateTime createdAt, @Param("id") Integer id, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + FEED_AUTHOR + FEED_AFTER_SCORE)
+    List<QuestionSummaryDTO> findSummaryFeedByScore(@Param("userId") Integer userId,
+                                                    @Param("score") Integer score, @Param("id") Integer id, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + FEED_AUTHOR + FEED_AFTER_ACTIVITY)
+    List<QuestionSummaryDTO> findSummaryFeedByActivity(@Param("userId") Integer userId,
+                                                       @Param("activeAt") LocalDateTime activeAt, @Param("id") Integer id, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE (LOWER(q.title) LIKE %:content% OR LOWER(q.body) LIKE %:content%) AND q.status = 'PUBLIC'")
+    List<QuestionSummaryDTO> findSummaryByKeyword(@Param("content") String content);
+
+    @Query(SUMMARY_SELECT + "WHERE LOWER(p.displayName) LIKE LOWER(CONCAT('%', :displayName, '%')) AND q.status = 'PUBLIC'")
+    List<QuestionSummaryDTO> findSummaryByDisplayName(@Param("displayName") String displayName);
+
+    // Tag names of the given questions: [questionId, tagName]
+    @Query("SELECT q.id, t.name FROM questions q JOIN q.tags t WHERE q.id IN :ids")
+    List<Object[]> findTagNamesByQuestionIds(@Param("ids") Collection<Integer> ids);
+
+    // fill the feed sort columns of rows written before they existed
+    @Modifying
+    @Query("UPDATE questions q SET q.score = q.upvotes * 3 - q.downvotes, " +
+           "q.lastActivityAt = COALESCE(q.updatedAt, q.createdAt) WHERE q.lastActivityAt IS NULL")
+    int backfillFeedColumns();
+
+    // Atomic counter update, it does not load the question nor touch updated_at. Votes go through VoteCounterBuffer.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "questions"))
+    @Query(value = "UPDATE questions SET comment_count = GREATEST(comment_count + :delta, 0), last_activity_at = :at " +
+                   "WHERE id = :id", nativeQuery = true)
+    int addCommentCount(@Param("id") Integer id, @Param("delta") int delta, @Param("at") LocalDateTime at);
+
+    @Query(SUMMARY_SELECT + "WHERE q.id IN :ids")
+    List<QuestionSummaryDTO> findSummaryByIds(@Param("ids") Collection<Integer> ids);
+
+    // Newest public questions for the hot ranking: [id, createdAt, score, commentCount]
+    @Query("SELECT q.id, q.createdAt, q.score, q.commentCount FROM questions q WHERE q.status = 'PUBLIC' " +
+           "ORDER BY q.createdAt DESC, q.id DESC")
+    List<Object[]> findHotCandidates(Pageable pageable);
+
+    // Columns that change the rendered question: [id, status, updatedAt, lastActivityAt, upvotes, downvotes, commentCount, last comment change]
+    @Query("SELECT q.id, q.status, q.updatedAt, q.lastActivityAt, q.upvotes, q.downvotes, q.commentCount, " +
+           "(SELECT MAX(COALESCE(c.updatedAt, c.createdAt)) FROM comments c WHERE c.question.id = q.id) " +
+           "FROM questions q WHERE q.id IN :ids")
+    List<Object[]> findVersionsByIds(@Param("ids") Collection<Integer> ids);
+
+    @EntityGraph(value = Question.DETAIL_GRAPH, type = EntityGraph.EntityGraphType.LOAD)
+    @Query("SELECT q FROM questions q WHERE q.id IN :ids")
+    List<Question> findDetailByIds(@Param("ids") Collection<Integer> ids);
+
+    @EntityGraph(value = Question.MODERATION_GRAPH, type = EntityGraph.EntityGraphType.LOAD)
+    @Query("SELECT q FROM questions q WHERE q.id IN :ids")
+    List<Question> findModerationByIds(@Param("ids") Collection<Integer> ids);
+
+    // Stored vote counters: [upvotes, downvotes]
+    @Query("SELECT q.upvotes, q.downvotes FROM questions q WHERE q.id = :id")
+    List<Object[]> findCountersById(@Param("id") Integer id);
+
+    // Authors of the posts: [id, authorId]
+    @Query("SELECT q.id, q.user.id FROM questions q WHERE q.id IN :ids")
+    List<Object[]> findAuthorIdsByIds(@Param("ids") Collection<Integer> ids);
+}
@@ -15,6 +15,13 @@ public interface UserBadgeRepository extends JpaRepository<UserBadge, Integer> {
     @Query("SELECT COUNT(ub) FROM user_badges ub WHERE ub.user.id = :userId")
     Long countBadgesByUserId(@NonNull Integer userId);
 
+    /**
+     * @return rows of user id, badge tier and the number of badges of that tier the user earned
+     */
+    @Query("SELECT ub.user.id, b.tier, COUNT(ub) FROM user_badges ub JOIN ub.badge b " +
+           "WHERE ub.user.id IN :userIds GROUP BY ub.user.id, b.tier")
+    List<Object[]> countBadgesByTier(@Param("userIds") Collection<Integer> userIds);
+
     @Query("SELECT b FROM badges b " +
            "JOIN user_badges ub ON b.id = ub.badge.id " +
            "WHERE ub.user.id = :userId " +
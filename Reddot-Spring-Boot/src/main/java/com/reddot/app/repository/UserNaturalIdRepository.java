@@ -0,0 +1,13 @@
+package com.reddot.app.repository;
+
+import com.reddot.app.entity.User;
+
+import java.util.Optional;
+
+/**
+ * Loads users by their natural id through the Hibernate session, so the lookup is served by the
+ * natural-id cache and the {@code users} entity cache instead of a query.
+ */
+public interface UserNaturalIdRepository {
+    Optional<User> findByUsername(String username);
+}
@@ -0,0 +1,11 @@
+package com.reddot.app.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only projection of the public profile of a user: the columns of {@code users} and {@code persons}
+ * the profile shows, without the associations of {@code User}.
+ */
+public record UserProfileView(Integer userId, String username, String email, String avatarLink, String displayName,
+                              String aboutMe, LocalDate dob, String location, String websiteUrl) {
+}
@@ -1,19 +1,25 @@
 package com.reddot.app.repository;
 
 import com.reddot.app.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Integer>, PagingAndSortingRepository<User, Integer> {
-    Optional<User> findByUsername(String username);
+public interface UserRepository extends JpaRepository<User, Integer>, PagingAndSortingRepository<User, Integer>,
+        UserNaturalIdRepository {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByEmail(String email);
 
     Optional<User> findByUsernameOrEmail(String username, String email);
@@ -42,4 +48,24 @@ public interface UserRepository extends JpaRepository<User, Integer>, PagingAndS
     // another solution is to use @EntityGraph
     @Query("SELECT u FROM users u LEFT JOIN FETCH u.bookmarks WHERE u.id = :id")
     Optional<User> findByIdAndFetchBookmarksEagerly(@Param("id") Integer id);
+
+    // a user without a Person yet shows the username as display name
+    String PROFILE_SELECT = "SELECT new com.reddot.app.repository.UserProfileView(u.id, u.username, u.email, u.avatarUrl, " +
+                            "COALESCE(p.displayName, u.username), p.aboutMe, p.dob, p.location, p.websiteUrl) " +
+                            "FROM users u LEFT JOIN u.person p ";
+
+    @Query(PROFILE_SELECT + "WHERE u.id = :id")
+    Optional<UserProfileView> findProfileById(@Param("id") Integer id);
+
+    @Query(PROFILE_SELECT + "WHERE u.username = :username")
+    Optional<UserProfileView> findProfileByUsername(@Param("username") String username);
+
+    /**
+     * @return one row of id, email, username, enabled flag, role name and role id per role of the user
+     */
+    @Query("SELECT u.id, u.email, u.username, u.isEnabled, r.name, r.id FROM users u LEFT JOIN u.roles r WHERE u.id = :id")
+    List<Object[]> findPrincipalRowsById(@Param("id") Integer id);
+
+    @Query(PROFILE_SELECT + "WHERE u.id IN :ids")
+    List<UserProfileView> findProfilesByIds(@Param("ids") Collection<Integer> ids);
 }
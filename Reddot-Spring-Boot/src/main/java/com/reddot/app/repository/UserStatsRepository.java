@@ -0,0 +1,9 @@
+package com.reddot.app.repository;
+
+import com.reddot.app.entity.UserStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserStatsRepository extends JpaRepository<UserStats, Integer> {
+}
@@ -3,12 +3,21 @@ package com.reddot.app.repository;
 import com.reddot.app.entity.Question;
 import com.reddot.app.entity.User;
 import com.reddot.app.entity.Vote;
+import jakarta.persistence.QueryHint;
 import lombok.NonNull;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Meta;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -41,4 +50,84 @@ public interface VoteRepository extends JpaRepository<Vote, Integer> {
     Optional<Vote> findByUserIdAndCommentId(Integer userId, Integer commentId);
 
     Optional<Vote> findByUserAndQuestion(User user, Question question);
+
+    // Vote direction of one user on each of the given questions: [questionId, VOTETYPE]
+    @Query("SELECT v.question.id, v.voteType.type FROM votes v " +
+           "WHERE v.user.id = :userId AND v.question.id IN :questionIds")
+    List<Object[]> findQuestionVotesByUserId(@Param("userId") Integer userId, @Param("questionIds") Collection<Integer> questionIds);
+
+    // Vote direction of one user on each of the given comments: [commentId, VOTETYPE]
+    @Query("SELECT v.comment.id, v.voteType.type FROM votes v " +
+           "WHERE v.user.id = :userId AND v.comment.id IN :commentIds")
+    List<Object[]> findCommentVotesByUserId(@Param("userId") Integer userId, @Param("commentIds") Collection<Integer> commentIds);
+
+    // Vote toggle statements, see VoteService#toggle. They declare their table so the second-level cache is kept.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "votes"))
+    @Query(value = "DELETE FROM votes WHERE user_id = :userId AND question_id = :questionId AND vote_type_id = :voteTypeId",
+            nativeQuery = true)
+    int deleteQuestionVote(@Param("userId") Integer userId, @Param("questionId") Integer questionId,
+                           @Param("voteTypeId") Integer voteTypeId);
+
+    // ignored when the user already voted on the question (unique index) or the question does not exist
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "votes"))
+    @Query(value = "INSERT IGNORE INTO votes (user_id, question_id, vote_type_id, status, created_at) " +
+                   "VALUES (:userId, :questionId, :voteTypeId, 'PUBLIC', :now)", nativeQuery = true)
+    int insertQuestionVote(@Param("userId") Integer userId, @Param("questionId") Integer questionId,
+                           @Param("voteTypeId") Integer voteTypeId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "votes"))
+    @Query(value = "UPDATE votes SET vote_type_id = :voteTypeId, updated_at = :now " +
+                   "WHERE user_id = :userId AND question_id = :questionId AND vote_type_id <> :voteTypeId", nativeQuery = true)
+    int switchQuestionVote(@Param("userId") Integer userId, @Param("questionId") Integer questionId,
+                           @Param("voteTypeId") Integer voteTypeId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "votes"))
+    @Query(value = "DELETE FROM votes WHERE user_id = :userId AND comment_id = :commentId AND vote_type_id = :voteTypeId",
+            nativeQuery = true)
+    int deleteCommentVote(@Param("userId") Integer userId, @Param("commentId") Integer commentId,
+                          @Param("voteTypeId") Integer voteTypeId);
+
+    // ignored when the user already voted on the comment (unique index) or the comment does not exist
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "votes"))
+    @Query(value = "INSERT IGNORE INTO votes (user_id, comment_id, vote_type_id, status, created_at) " +
+                   "VALUES (:userId, :commentId, :voteTypeId, 'PUBLIC', :now)", nativeQuery = true)
+    int insertCommentVote(@Param("userId") Integer userId, @Param("commentId") Integer commentId,
+                          @Param("voteTypeId") Integer voteTypeId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "votes"))
+    @Query(value = "UPDATE votes SET vote_type_id = :voteTypeId, updated_at = :now " +
+                   "WHERE user_id = :userId AND comment_id = :commentId AND vote_type_id <> :voteTypeId", nativeQuery = true)
+    int switchCommentVote(@Param("userId") Integer userId, @Param("commentId") Integer commentId,
+                          @Param("voteTypeId") Integer voteTypeId, @Param("now") LocalDateTime now);
+
+    // names of the unique indexes of votes that exist, once both exist there cannot be any duplicate vote
+    @Query(value = "SELECT DISTINCT index_name FROM information_schema.statistics WHERE table_schema = DATABASE() " +
+                   "AND table_name = 'votes' AND index_name IN ('uk_votes_user_question', 'uk_votes_user_comment')",
+           nativeQuery = true)
+    List<String> findUniqueIndexNames();
+
+    // keep the first vote of each user on each post, the unique indexes cannot be created over duplicates
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "votes"))
+    @Query(value = "DELETE v1 FROM votes v1 JOIN votes v2 ON v1.user_id = v2.user_id AND v1.id > v2.id " +
+                   "AND (v1.question_id = v2.question_id OR v1.comment_id = v2.comment_id)", nativeQuery = true)
+    int deleteDuplicateVotes();
+
+    // DDL commits on its own in MySQL, it fails if a duplicate was inserted since deleteDuplicateVotes
+    @Transactional
+    @Modifying
+    @Query(value = "ALTER TABLE votes ADD UNIQUE INDEX uk_votes_user_question (user_id, question_id)", nativeQuery = true)
+    void addUserQuestionIndex();
+
+    @Transactional
+    @Modifying
+    @Query(value = "ALTER TABLE votes ADD UNIQUE INDEX uk_votes_user_comment (user_id, comment_id)", nativeQuery = true)
+    void addUserCommentIndex();
 }
@@ -2,12 +2,17 @@ package com.reddot.app.repository;
 
 import com.reddot.app.entity.VoteType;
 import com.reddot.app.entity.enumeration.VOTETYPE;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
 public interface VoteTypeRepository extends JpaRepository<VoteType, Integer> {
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "reference-queries")})
     Optional<VoteType> findByType(VOTETYPE type);
 }
@@ -3,9 +3,13 @@ package com.reddot.app.repository;
 import com.reddot.app.entity.UserOnDelete;
 import lombok.NonNull;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Set;
 
 @Repository
@@ -17,5 +21,9 @@ public interface userDeleteRepository extends JpaRepository<UserOnDelete, Intege
 
     void removeByUserId(@NonNull Integer userId);
 
+    @Modifying
+    @Query("DELETE FROM delete_request d WHERE d.userId IN :userIds")
+    int removeByUserIdIn(@Param("userIds") Collection<Integer> userIds);
+
     Set<UserOnDelete> findAllByCreatedAtBeforeAndIsNoticedIsFalse(LocalDateTime cutoffDate);
 }
@@ -3,11 +3,17 @@ package com.reddot.app.service;
 import com.reddot.app.entity.Membership;
 import com.reddot.app.entity.User;
 import com.reddot.app.entity.UserOnDelete;
+import com.reddot.app.repository.QuestionRepository;
 import com.reddot.app.repository.UserRepository;
+import com.reddot.app.repository.VoteRepository;
 import com.reddot.app.repository.userDeleteRepository;
 import com.reddot.app.service.email.MailSenderManager;
+import com.reddot.app.service.user.PrincipalCache;
 import com.reddot.app.service.user.UserServiceManager;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,6 +30,9 @@ public class TaskSchedulerImp {
 
     public static final int DELETE_DAYS = 15;
     public static final int WARNING_DAYS = 13;
+    private static final int UNIQUE_INDEX_ATTEMPTS = 3;
+    private static final String UK_VOTES_USER_QUESTION = "uk_votes_user_question";
+    private static final String UK_VOTES_USER_COMMENT = "uk_votes_user_comment";
     private final String logMsg = "SCHEDULED TASK";
     private final userDeleteRepository userDeleteRepository;
     private final LocalDateTime cutoffDate = LocalDateTime.now().minusDays(DELETE_DAYS);
@@ -31,13 +40,60 @@ public class TaskSchedulerImp {
     private final UserRepository userRepository;
     private final MailSenderManager mailSenderManager;
     private final UserServiceManager userServiceManager;
+    private final QuestionRepository questionRepository;
+    private final VoteRepository voteRepository;
+    private final PrincipalCache principalCache;
     Set<UserOnDelete> onDeletes = new HashSet<>();
 
-    public TaskSchedulerImp(userDeleteRepository userDeleteRepository, UserRepository userRepository, MailSenderManager mailSenderManager, UserServiceManager userServiceManager) {
+    public TaskSchedulerImp(userDeleteRepository userDeleteRepository, UserRepository userRepository, MailSenderManager mailSenderManager,
+                            UserServiceManager userServiceManager, QuestionRepository questionRepository,
+                            VoteRepository voteRepository, PrincipalCache principalCache) {
         this.userDeleteRepository = userDeleteRepository;
         this.userRepository = userRepository;
         this.mailSenderManager = mailSenderManager;
         this.userServiceManager = userServiceManager;
+        this.questionRepository = questionRepository;
+        this.voteRepository = voteRepository;
+        this.principalCache = principalCache;
+    }
+
+    // Run once at startup to fill the feed sort columns of questions created before they existed
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void questionFeedBackfill() {
+        int updated = questionRepository.backfillFeedColumns();
+        if (updated > 0) {
+            log.info(logMsg + " - QUESTION FEED BACKFILL: {} rows", updated);
+        }
+    }
+
+    // Run once at startup to delete the duplicate votes and create the unique indexes of votes, which then guard
+    // every later start. Each step commits on its own; a duplicate inserted between the delete and the index
+    // creation, or an index created by another node, fails the attempt and the next one starts over.
+    @EventListener(ApplicationReadyEvent.class)
+    public void voteUniqueIndexes() {
+        for (int attempt = 1; attempt <= UNIQUE_INDEX_ATTEMPTS; attempt++) {
+            List<String> indexes = voteRepository.findUniqueIndexNames();
+            if (indexes.containsAll(List.of(UK_VOTES_USER_QUESTION, UK_VOTES_USER_COMMENT))) {
+                return;
+            }
+            try {
+                int duplicates = voteRepository.deleteDuplicateVotes();
+                log.warn(logMsg + " - DUPLICATE VOTES DELETED: {} rows", duplicates);
+                if (!indexes.contains(UK_VOTES_USER_QUESTION)) {
+                    voteRepository.addUserQuestionIndex();
+                }
+                if (!indexes.contains(UK_VOTES_USER_COMMENT)) {
+                    voteRepository.addUserCommentIndex();
+                }
+                log.info(logMsg + " - UNIQUE INDEXES OF VOTES CREATED");
+                return;
+            } catch (DataAccessException e) {
+                log.warn(logMsg + " - UNIQUE INDEXES OF VOTES - attempt {} failed: {}", attempt, e.getMessage());
+            }
+        }
+        log.error(logMsg + " - UNIQUE INDEXES OF VOTES NOT CREATED after {} attempts, retried on next start",
+                UNIQUE_INDEX_ATTEMPTS);
     }
 
     // TODO: DOCS ME
@@ -49,6 +105,7 @@ public class TaskSchedulerImp {
         onDeletes = getOnDeletesBefore(cutoffDate, true);
         onDeletes.forEach(deleteRequest -> {
             userRepository.deleteById(deleteRequest.getUserId());
+            principalCache.evict(deleteRequest.getUserId());
             userDeleteRepository.delete(deleteRequest);
             log.warn("USER DELETED - ID: {}", deleteRequest.getUserId());
         });
@@ -0,0 +1,79 @@
+package com.reddot.app.service.auth;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory mirror of the revoked token ids: a Bloom filter in front of a hash set.
+ * <p>
+ * Most checks are for tokens that are not revoked and end at the filter, which reads a few bits
+ * derived from the cached {@link String#hashCode()} of the id: no allocation and no lookup in the set.
+ * A Bloom filter cannot forget an id, so expired ids are dropped by building a new instance.
+ */
+final class RevokedTokens {
+    private static final int BITS_PER_ENTRY = 10;
+    private static final int HASHES = 7;
+
+    // revoked id -> expiration of the token
+    private final Map<String, Instant> expirations = new ConcurrentHashMap<>();
+    private final AtomicLongArray bits;
+    private final int mask;
+
+    RevokedTokens(int expectedEntries) {
+        int size = Integer.highestOneBit(Math.max(expectedEntries, 1024) * BITS_PER_ENTRY - 1) << 1;
+        this.bits = new AtomicLongArray(size >>> 6);
+        this.mask = size - 1;
+    }
+
+    void add(String id, Instant expiresAt) {
+        expirations.put(id, expiresAt);
+        int h1 = id.hashCode();
+        int h2 = mix(h1);
+        for (int i = 0; i < HASHES; i++) {
+            int bit = (h1 + i * h2) & mask;
+            long word;
+            do {
+                word = bits.get(bit >>> 6);
+            } while (!bits.compareAndSet(bit >>> 6, word, word | (1L << bit)));
+        }
+    }
+
+    boolean contains(String id) {
+        int h1 = id.hashCode();
+        int h2 = mix(h1);
+        for (int i = 0; i < HASHES; i++) {
+            int bit = (h1 + i * h2) & mask;
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return expirations.containsKey(id);
+    }
+
+    int size() {
+        return expirations.size();
+    }
+
+    /**
+     * Copy the ids that expire after {@code now} into {@code target}.
+     */
+    void copyUnexpiredTo(RevokedTokens target, Instant now) {
+        expirations.forEach((id, expiresAt) -> {
+            if (expiresAt.isAfter(now)) {
+                target.add(id, expiresAt);
+            }
+        });
+    }
+
+    // murmur3 finalizer, an odd second hash for double hashing
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h | 1;
+    }
+}
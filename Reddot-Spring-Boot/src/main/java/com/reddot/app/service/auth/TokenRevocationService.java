@@ -0,0 +1,128 @@
+package com.reddot.app.service.auth;
+
+import com.reddot.app.entity.JwtToken;
+import com.reddot.app.entity.User;
+import com.reddot.app.repository.JwtTokenRepository;
+import com.reddot.app.util.JwtClaims;
+import com.reddot.app.util.JwtUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Issues the tokens of the users and revokes them, one at a time or all the sessions of a user.
+ * <p>
+ * Issued tokens are recorded in {@code jwt_tokens} by their {@code jti} claim. Revocations are persisted there
+ * and mirrored in memory by {@link RevokedTokens}, so {@link #isRevoked(JwtClaims)} never reads the database.
+ * Every {@code reddot.security.revocation.refresh-interval} the expired rows are deleted and the mirror is
+ * rebuilt from the table, which also picks up the revocations made by other instances.
+ * Tokens issued before the {@code jti} claim existed cannot be revoked and run until they expire.
+ */
+@Slf4j
+@Service
+public class TokenRevocationService {
+    private final JwtTokenRepository jwtTokenRepository;
+    private final JwtUtil jwtUtil;
+    private final int expectedEntries;
+    private volatile RevokedTokens revoked;
+
+    public TokenRevocationService(JwtTokenRepository jwtTokenRepository, JwtUtil jwtUtil,
+                                  @Value("${reddot.security.revocation.expected-entries:100000}") int expectedEntries) {
+        this.jwtTokenRepository = jwtTokenRepository;
+        this.jwtUtil = jwtUtil;
+        this.expectedEntries = expectedEntries;
+        this.revoked = new RevokedTokens(expectedEntries);
+    }
+
+    /**
+     * Generate a token for the user and record it.
+     */
+    @Transactional
+    public String issue(User user, String ipAddress, String deviceName) {
+        String jws = jwtUtil.generateToken(user);
+        JwtClaims claims = jwtUtil.verify(jws);
+        JwtToken token = new JwtToken();
+        token.setValue(claims.id());
+        token.setExpirationBefore(Timestamp.from(claims.expiresAt()));
+        token.setIpAddress(ipAddress);
+        token.setDeviceName(deviceName);
+        token.setUser(user);
+        jwtTokenRepository.save(token);
+        return jws;
+    }
+
+    public boolean isRevoked(JwtClaims claims) {
+        return claims.id() != null && revoked.contains(claims.id());
+    }
+
+    /**
+     * Revoke the token, it is rejected once the transaction commits.
+     */
+    @Transactional
+    public void revoke(JwtClaims claims) {
+        if (claims.id() != null && jwtTokenRepository.revoke(claims.id(), Timestamp.from(Instant.now())) > 0) {
+            afterCommit(List.<Object[]>of(new Object[]{claims.id(), Timestamp.from(claims.expiresAt())}));
+        }
+    }
+
+    /**
+     * Revoke every session of the user.
+     */
+    @Transactional
+    public void revokeAll(Integer userId) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> tokens = jwtTokenRepository.findActiveByUserId(userId, now);
+        if (!tokens.isEmpty()) {
+            jwtTokenRepository.revokeAllByUserId(userId, now);
+            afterCommit(tokens);
+        }
+    }
+
+    private void afterCommit(List<Object[]> tokens) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(tokens);
+                }
+            });
+        } else {
+            add(tokens);
+        }
+    }
+
+    private synchronized void add(List<Object[]> tokens) {
+        for (Object[] token : tokens) {
+            revoked.add((String) token[0], ((Timestamp) token[1]).toInstant());
+        }
+    }
+
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${reddot.security.revocation.refresh-interval:PT10M}",
+            initialDelayString = "${reddot.security.revocation.refresh-interval:PT10M}")
+    public void refresh() {
+        Instant now = Instant.now();
+        int deleted = jwtTokenRepository.deleteExpired(Timestamp.from(now));
+        List<Object[]> rows = jwtTokenRepository.findRevoked(Timestamp.from(now));
+        synchronized (this) {
+            RevokedTokens current = revoked;
+            RevokedTokens next = new RevokedTokens(Math.max(expectedEntries, (rows.size() + current.size()) * 2));
+            rows.forEach(row -> next.add((String) row[0], ((Timestamp) row[1]).toInstant()));
+            // revocations committed since the rows were read
+            current.copyUnexpiredTo(next, now);
+            revoked = next;
+        }
+        log.info("TOKEN REVOCATIONS REFRESHED - {} revoked, {} expired tokens deleted", rows.size(), deleted);
+    }
+}
@@ -0,0 +1,165 @@
+package com.reddot.app.service.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caches the serialized JSON of responses that are identical for every anonymous visitor.
+ * <p>
+ * An entry is fresh for {@code reddot.cache.anonymous.fresh-for} and until the next write
+ * calls {@link #invalidate()}. A stale entry is still served while a background thread reloads it,
+ * so readers never wait on the database unless the entry is older than {@code reddot.cache.anonymous.max-stale}
+ * or absent. Concurrent misses of the same key share one load.
+ * <p>
+ * Every entry carries a strong ETag, the digest of its body, so anonymous conditional requests are answered
+ * from the cache without touching the database.
+ */
+@Slf4j
+@Component
+public class AnonymousResponseCache {
+    private final ObjectMapper objectMapper;
+    private final long freshForNanos;
+    private final long maxStaleNanos;
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<Entry>> loads = new ConcurrentHashMap<>();
+    // bumped after every committed write, entries of an older generation are stale
+    private final AtomicLong generation = new AtomicLong();
+    private final ExecutorService refresher;
+
+    public AnonymousResponseCache(ObjectMapper objectMapper,
+                                  @Value("${reddot.cache.anonymous.fresh-for:30s}") Duration freshFor,
+                                  @Value("${reddot.cache.anonymous.max-stale:10m}") Duration maxStale,
+                                  @Value("${reddot.cache.anonymous.max-entries:512}") int maxEntries) {
+        this.objectMapper = objectMapper;
+        this.freshForNanos = freshFor.toNanos();
+        this.maxStaleNanos = maxStale.toNanos();
+        this.maxEntries = maxEntries;
+        this.refresher = new ThreadPoolExecutor(1, 2, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(maxEntries),
+                Thread.ofPlatform().name("anonymous-cache-", 0).daemon().factory(),
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * @param key    identifies the response, must include every request parameter it depends on
+     * @param loader builds the response body, runs on the caller thread on a miss and on a background thread on refresh
+     * @return the JSON body
+     */
+    public byte[] get(String key, Supplier<?> loader) {
+        return getResponse(key, loader).body();
+    }
+
+    /**
+     * Same as {@link #get(String, Supplier)}, with the ETag of the returned body.
+     */
+    public CachedResponse getResponse(String key, Supplier<?> loader) {
+        Entry entry = entries.get(key);
+        long now = System.nanoTime();
+        if (entry == null || now - entry.storedAt() > maxStaleNanos) {
+            return load(key, loader).response();
+        }
+        if (entry.generation() != generation.get() || now - entry.storedAt() > freshForNanos) {
+            refresher.execute(() -> {
+                if (entries.get(key) != entry) {
+                    return; // already refreshed by an earlier task
+                }
+                try {
+                    load(key, loader);
+                } catch (Exception e) {
+                    log.warn("ANONYMOUS CACHE - refresh of `{}` failed, serving stale: {}", key, e.getMessage());
+                }
+            });
+        }
+        return entry.response();
+    }
+
+    /**
+     * Mark every entry stale once the current transaction commits, or right away outside of a transaction.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generation.incrementAndGet();
+                }
+            });
+        } else {
+            generation.incrementAndGet();
+        }
+    }
+
+    private Entry load(String key, Supplier<?> loader) {
+        CompletableFuture<Entry> mine = new CompletableFuture<>();
+        CompletableFuture<Entry> running = loads.putIfAbsent(key, mine);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            // read the generation first, a write committed during the load leaves the entry stale
+            long loadedGeneration = generation.get();
+            byte[] body = serialize(loader.get());
+            String etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+            Entry entry = new Entry(new CachedResponse(body, etag), System.nanoTime(), loadedGeneration);
+            store(key, entry);
+            mine.complete(entry);
+            return entry;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(key, mine);
+        }
+    }
+
+    private void store(String key, Entry entry) {
+        if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+            entries.entrySet().stream()
+                    .min(Comparator.comparingLong(e -> e.getValue().storedAt()))
+                    .map(Map.Entry::getKey)
+                    .ifPresent(entries::remove);
+        }
+        entries.put(key, entry);
+    }
+
+    private byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize cached response", e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * @param body JSON body
+     * @param etag strong entity tag of the body, quoted
+     */
+    public record CachedResponse(byte[] body, String etag) {
+    }
+
+    private record Entry(CachedResponse response, long storedAt, long generation) {
+    }
+}
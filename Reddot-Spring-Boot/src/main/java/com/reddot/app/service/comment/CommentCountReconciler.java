@@ -0,0 +1,159 @@
+package com.reddot.app.service.comment;
+
+import com.reddot.app.service.cache.AnonymousResponseCache;
+import com.reddot.app.service.ranking.HotRankingService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Recounts the public comments of every question and repairs the stored {@code comment_count}s that drifted.
+ * <p>
+ * Questions are walked by id in keyset-ordered chunks of {@code reddot.comments.recount.chunk-size}. For each chunk
+ * one statement reads the stored counts next to the comments grouped by question, so both sides come from the same
+ * snapshot, and the drifted rows are fixed with one JDBC batch of relative {@code UPDATE}s that commute with the
+ * comments added or deleted in between. Every statement commits on its own and chunks are paced by
+ * {@code reddot.comments.recount.pause}, so no question row stays locked under live traffic.
+ * <p>
+ * The recount runs every night, and once at startup while some question with public comments still has a count
+ * of zero, which is the state left by adding the column to existing rows.
+ * Runs are handed to a dedicated thread, the shared scheduler threads are never held.
+ */
+@Slf4j
+@Component
+public class CommentCountReconciler {
+    private static final String NOT_BACKFILLED = "SELECT EXISTS (SELECT 1 FROM questions q WHERE q.comment_count = 0 " +
+                                                 "AND EXISTS (SELECT 1 FROM comments c WHERE c.question_id = q.id AND c.status = 'PUBLIC'))";
+    private static final String CHUNK_END = "SELECT MAX(id) FROM (SELECT id FROM questions WHERE id > ? ORDER BY id LIMIT ?) chunk";
+    private static final String CHUNK_COUNTS =
+            "SELECT q.id, q.comment_count, COALESCE(c.total, 0) FROM questions q " +
+            "LEFT JOIN (SELECT question_id, COUNT(*) AS total FROM comments " +
+            "WHERE status = 'PUBLIC' AND question_id > ? AND question_id <= ? GROUP BY question_id) c " +
+            "ON c.question_id = q.id WHERE q.id > ? AND q.id <= ?";
+    private static final String REPAIR = "UPDATE questions SET comment_count = comment_count + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final HotRankingService hotRankingService;
+    private final AnonymousResponseCache anonymousResponseCache;
+    private final int chunkSize;
+    private final Duration pause;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Counter repaired;
+    private final Timer duration;
+    private final ExecutorService executor =
+            Executors.newSingleThreadExecutor(Thread.ofPlatform().name("comment-recount").factory());
+
+    public CommentCountReconciler(JdbcTemplate jdbcTemplate, HotRankingService hotRankingService,
+                                  AnonymousResponseCache anonymousResponseCache, MeterRegistry meterRegistry,
+                                  @Value("${reddot.comments.recount.chunk-size:1000}") int chunkSize,
+                                  @Value("${reddot.comments.recount.pause:50ms}") Duration pause) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.hotRankingService = hotRankingService;
+        this.anonymousResponseCache = anonymousResponseCache;
+        this.chunkSize = chunkSize;
+        this.pause = pause;
+        this.repaired = Counter.builder("reddot.comments.recount.repaired")
+                .description("Questions whose comment count was repaired").register(meterRegistry);
+        this.duration = Timer.builder("reddot.comments.recount.duration")
+                .description("Duration of a full recount").register(meterRegistry);
+    }
+
+    // one-off: fill the counts of the questions created before the column existed
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(NOT_BACKFILLED, Boolean.class))) {
+            log.info("QUESTION COMMENT COUNT BACKFILL - started");
+            schedule();
+        }
+    }
+
+    // Run at 03:00 every day, off peak
+    @Scheduled(cron = "${reddot.comments.recount.cron:0 0 3 * * *}")
+    public void schedule() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("QUESTION COMMENT RECOUNT ALREADY RUNNING - skipped");
+            return;
+        }
+        try {
+            executor.execute(this::run);
+        } catch (RejectedExecutionException e) {
+            // shutting down
+            running.set(false);
+        }
+    }
+
+    private void run() {
+        try {
+            duration.record(this::recount);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void recount() {
+        long checked = 0;
+        long repairedQuestions = 0;
+        int lastId = 0;
+        while (true) {
+            Integer chunkLastId = jdbcTemplate.queryForObject(CHUNK_END, Integer.class, lastId, chunkSize);
+            if (chunkLastId == null) {
+                break;
+            }
+            List<Object[]> batch = new ArrayList<>();
+            int[] rows = {0};
+            jdbcTemplate.query(CHUNK_COUNTS, rs -> {
+                rows[0]++;
+                int drift = rs.getInt(3) - rs.getInt(2);
+                if (drift != 0) {
+                    batch.add(new Object[]{drift, rs.getInt(1)});
+                }
+            }, lastId, chunkLastId, lastId, chunkLastId);
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate(REPAIR, batch);
+                batch.forEach(row -> hotRankingService.onQuestionCommented((Integer) row[1], (Integer) row[0]));
+                repaired.increment(batch.size());
+                repairedQuestions += batch.size();
+            }
+            checked += rows[0];
+            lastId = chunkLastId;
+            if (!sleep(pause)) {
+                break;
+            }
+        }
+        log.info("QUESTION COMMENT RECOUNT - {} checked up to id {}, {} repaired", checked, lastId, repairedQuestions);
+        if (repairedQuestions > 0) {
+            anonymousResponseCache.invalidate();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static boolean sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
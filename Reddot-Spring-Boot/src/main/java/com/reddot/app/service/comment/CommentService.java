@@ -2,7 +2,6 @@ package com.reddot.app.service.comment;
 
 import com.reddot.app.dto.request.CommentPostDTO;
 import com.reddot.app.dto.response.CommentDTO;
-import com.reddot.app.entity.Comment;
 import com.reddot.app.entity.User;
 import com.reddot.app.exception.BadRequestException;
 import com.reddot.app.exception.ResourceNotFoundException;
@@ -71,6 +70,4 @@ public interface CommentService {
     Boolean isCommentUpvotedByUser(Integer commentId, Integer userId);
 
     Boolean isCommentDownvotedByUser(Integer commentId, Integer userId);
-
-    List<Comment> filterPublicComment(List<Comment> comments);
 }
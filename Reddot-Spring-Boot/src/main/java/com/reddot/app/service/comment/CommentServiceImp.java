@@ -3,26 +3,31 @@ package com.reddot.app.service.comment;
 import com.reddot.app.assembler.CommentAssembler;
 import com.reddot.app.dto.request.CommentPostDTO;
 import com.reddot.app.dto.response.CommentDTO;
-import com.reddot.app.entity.BaseEntity;
 import com.reddot.app.entity.Comment;
 import com.reddot.app.entity.Question;
 import com.reddot.app.entity.User;
-import com.reddot.app.entity.enumeration.ROLENAME;
 import com.reddot.app.entity.enumeration.VOTETYPE;
 import com.reddot.app.exception.BadRequestException;
 import com.reddot.app.exception.ResourceNotFoundException;
 import com.reddot.app.repository.CommentRepository;
 import com.reddot.app.repository.QuestionRepository;
+import com.reddot.app.service.cache.AnonymousResponseCache;
+import com.reddot.app.service.event.CommentAdded;
+import com.reddot.app.service.event.CommentDeleted;
+import com.reddot.app.service.event.DomainEventBus;
+import com.reddot.app.service.ranking.HotRankingService;
+import com.reddot.app.service.system.ReferenceDataRegistry;
+import com.reddot.app.service.system.VisibilityFilter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
-import static com.reddot.app.entity.BaseEntity.filterList;
-
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -30,7 +35,13 @@ public class CommentServiceImp implements CommentService {
     private final CommentRepository commentRepository;
     private final QuestionRepository questionRepository;
     private final CommentAssembler commentAssembler;
+    private final VisibilityFilter visibilityFilter;
+    private final HotRankingService hotRankingService;
+    private final AnonymousResponseCache anonymousResponseCache;
+    private final DomainEventBus domainEventBus;
+    private final ReferenceDataRegistry referenceDataRegistry;
 
+    @Transactional
     @Override
     public CommentDTO commentCreateOnQuestion(@NonNull User author, CommentPostDTO dto) throws ResourceNotFoundException {
         try {
@@ -38,6 +49,10 @@ public class CommentServiceImp implements CommentService {
             Comment comment = new Comment(dto.getBody(), author);
             question.addComment(comment);
             commentRepository.save(comment);
+            anonymousResponseCache.invalidate();
+            questionRepository.addCommentCount(question.getId(), 1, comment.getCreatedAt());
+            hotRankingService.onQuestionCommented(question.getId(), 1);
+            domainEventBus.publish(new CommentAdded(comment.getId(), question.getId(), author.getId(), null));
             return commentAssembler.toDTO(comment);
         } catch (ResourceNotFoundException e) {
             throw e;
@@ -46,6 +61,7 @@ public class CommentServiceImp implements CommentService {
         }
     }
 
+    @Transactional
     @Override
     public CommentDTO commentReply(@NonNull User author, CommentPostDTO dto) throws ResourceNotFoundException {
         try {
@@ -53,6 +69,10 @@ public class CommentServiceImp implements CommentService {
             Comment reply = new Comment(dto.getBody(), author);
             parent.addReply(reply);
             commentRepository.save(reply);
+            anonymousResponseCache.invalidate();
+            questionRepository.addCommentCount(reply.getQuestion().getId(), 1, reply.getCreatedAt());
+            hotRankingService.onQuestionCommented(reply.getQuestion().getId(), 1);
+            domainEventBus.publish(new CommentAdded(reply.getId(), reply.getQuestion().getId(), author.getId(), parent.getId()));
             return commentAssembler.toDTO(reply);
         } catch (ResourceNotFoundException e) {
             throw e;
@@ -61,27 +81,23 @@ public class CommentServiceImp implements CommentService {
         }
     }
 
+    @Transactional(readOnly = true)
     @Override
     public List<CommentDTO> commentGetAll() {
         try {
-            return commentAssembler.toDTOList(filterPublicComment(getAllComments()));
+            return commentAssembler.toDTOList(getPublicComments());
         } catch (Exception e) {
             log.error("An error occurred while fetching comments", e);
             throw new RuntimeException(e);
         }
     }
 
+    @Transactional(readOnly = true)
     @Override
     public List<CommentDTO> commentGetAllWithUser(@NonNull User user) throws ResourceNotFoundException {
         try {
             Assert.notNull(user, "User cannot be null");
-            List<Comment> comments = filterPublicComment(getAllComments());
-            List<CommentDTO> dtoList = commentAssembler.toDTOList(comments);
-            dtoList.forEach(dto -> {
-                dto.setUpvoted(isCommentUpvotedByUser(dto.getCommentId(), user.getId()));
-                dto.setDownvoted(isCommentDownvotedByUser(dto.getCommentId(), user.getId()));
-            });
-            return dtoList;
+            return commentAssembler.toDTOList(getPublicComments(), user.getId());
         } catch (ResourceNotFoundException e) {
             log.error(e.getMessage());
             throw e;
@@ -91,10 +107,11 @@ public class CommentServiceImp implements CommentService {
         }
     }
 
+    @Transactional(readOnly = true)
     @Override
     public List<CommentDTO> commentGetByIds(List<Integer> ids) {
         try {
-            List<Comment> comments = filterPublicComment(getCommentByIds(ids));
+            List<Comment> comments = getPublicCommentByIds(ids);
             return commentAssembler.toDTOList(comments);
         } catch (Exception e) {
             log.error(e.getMessage());
@@ -102,18 +119,12 @@ public class CommentServiceImp implements CommentService {
         }
     }
 
+    @Transactional(readOnly = true)
     @Override
     public List<CommentDTO> commentGetByIdsWithUser(List<Integer> ids, @NonNull User user) throws ResourceNotFoundException {
         try {
-            List<Comment> comments = filterPublicComment(getCommentByIds(ids));
-            List<CommentDTO> dtoList = commentAssembler.toDTOList(comments);
-
-            // custom logic for user-specific properties
-            dtoList.forEach(dto -> {
-                dto.setUpvoted(isCommentUpvotedByUser(dto.getCommentId(), user.getId()));
-                dto.setDownvoted(isCommentDownvotedByUser(dto.getCommentId(), user.getId()));
-            });
-            return dtoList;
+            List<Comment> comments = getPublicCommentByIds(ids);
+            return commentAssembler.toDTOList(comments, user.getId());
         } catch (Exception e) {
             log.error(e.getMessage());
             throw new RuntimeException(e);
@@ -126,12 +137,13 @@ public class CommentServiceImp implements CommentService {
             Comment comment = getCommentByIds(List.of(dto.getId())).getFirst();
             //FIXME: FOLLOWING HELPER METHODS SHOULD BE REFACTORED INTO A SEPARATE SERVICE
             boolean isOwner = isOwner(user, comment);
-            boolean isSuperUser = isSuperUser(user);
+            boolean isSuperUser = referenceDataRegistry.isSuperUser(user);
             if (!isOwner && !isSuperUser) {
                 throw new BadRequestException("You are not permitted to edit this comment");
             }
             comment.setText(dto.getBody());
             commentRepository.save(comment);
+            anonymousResponseCache.invalidate();
             return commentAssembler.toDTO(comment);
         } catch (ResourceNotFoundException e) {
             throw e;
@@ -140,18 +152,27 @@ public class CommentServiceImp implements CommentService {
         }
     }
 
+    @Transactional
     @Override
     public void commentDelete(Integer id, User user) throws ResourceNotFoundException, BadRequestException {
         try {
             Assert.notNull(user, "User cannot be null");
             Comment comment = getCommentByIds(List.of(id)).getFirst();
             boolean isOwner = isOwner(user, comment);
-            boolean isSuperUser = isSuperUser(user);
+            boolean isSuperUser = referenceDataRegistry.isSuperUser(user);
             if (!(isOwner || isSuperUser)) {
                 throw new BadRequestException("You are not permitted to delete this comment");
             }
+            boolean wasPublic = comment.isPublic();
             comment.softRm();
             commentRepository.save(comment);
+            anonymousResponseCache.invalidate();
+            if (wasPublic) {
+                questionRepository.addCommentCount(comment.getQuestion().getId(), -1, LocalDateTime.now());
+                hotRankingService.onQuestionCommented(comment.getQuestion().getId(), -1);
+                domainEventBus.publish(new CommentDeleted(comment.getId(), comment.getQuestion().getId(),
+                        comment.getUser().getId()));
+            }
         } catch (ResourceNotFoundException e) {
             throw e;
         } catch (Exception e) {
@@ -161,22 +182,12 @@ public class CommentServiceImp implements CommentService {
 
     @Override
     public Boolean isCommentUpvotedByUser(Integer commentId, Integer userId) {
-        return commentRepository.existsByIdAndVotes_UserIdAndVotes_VoteTypeId(commentId, userId, VOTETYPE.UPVOTE.getDirection());
+        return commentRepository.existsByIdAndVotes_UserIdAndVotes_VoteTypeId(commentId, userId, referenceDataRegistry.voteTypeId(VOTETYPE.UPVOTE));
     }
 
     @Override
     public Boolean isCommentDownvotedByUser(Integer commentId, Integer userId) {
-        return commentRepository.existsByIdAndVotes_UserIdAndVotes_VoteTypeId(commentId, userId, VOTETYPE.DOWNVOTE.getDirection());
-    }
-
-    @Override
-    public List<Comment> filterPublicComment(List<Comment> comments) {
-        return filterList(comments, BaseEntity::isPublic);
-    }
-
-    private boolean isSuperUser(User user) {
-        return user.getRoles().stream().anyMatch(role -> role.getName().equals(ROLENAME.ROLE_ADMIN)
-                                                         || role.getName().equals(ROLENAME.ROLE_MODERATOR));
+        return commentRepository.existsByIdAndVotes_UserIdAndVotes_VoteTypeId(commentId, userId, referenceDataRegistry.voteTypeId(VOTETYPE.DOWNVOTE));
     }
 
     private boolean isOwner(User user, Comment comment) {
@@ -184,10 +195,16 @@ public class CommentServiceImp implements CommentService {
         return user.getId().equals(comment.getUser().getId());
     }
 
-    private List<Comment> getAllComments() {
+    private List<Comment> getPublicComments() {
+        visibilityFilter.apply(false);
         return commentRepository.findAll();
     }
 
+    private List<Comment> getPublicCommentByIds(List<Integer> ids) {
+        visibilityFilter.apply(false);
+        return commentRepository.findAllById(ids);
+    }
+
     private List<Comment> getCommentByIds(List<Integer> ids) {
         return commentRepository.findAllById(ids);
     }
@@ -0,0 +1,27 @@
+package com.reddot.app.service.email;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the absolute links embedded in the emails, from the address the application is served on.
+ */
+@Component
+public class MailLinks {
+    private final String fullUrl;
+
+    public MailLinks(@Value("${server.address}") String appDomain,
+                     @Value("${server.port}") String appPort,
+                     @Value("${server.servlet.context-path}") String appPath) {
+        this.fullUrl = "http://" + appDomain + ":" + appPort + appPath;
+    }
+
+    /**
+     * @param path  path of the endpoint under the context path, starting with a slash
+     * @param token the token the endpoint expects
+     * @return the absolute link to the endpoint with the token
+     */
+    public String withToken(String path, String token) {
+        return fullUrl + path + "?token=" + token;
+    }
+}
@@ -0,0 +1,4 @@
+package com.reddot.app.service.event;
+
+public record BadgeAwarded(Integer userId, Integer badgeId) implements DomainEvent {
+}
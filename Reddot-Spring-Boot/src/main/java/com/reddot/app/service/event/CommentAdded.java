@@ -0,0 +1,8 @@
+package com.reddot.app.service.event;
+
+/**
+ * @param responseToId the comment replied to, null for a comment on the question
+ */
+public record CommentAdded(Integer commentId, Integer questionId, Integer authorId, Integer responseToId)
+        implements DomainEvent {
+}
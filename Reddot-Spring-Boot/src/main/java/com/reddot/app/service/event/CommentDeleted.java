@@ -0,0 +1,4 @@
+package com.reddot.app.service.event;
+
+public record CommentDeleted(Integer commentId, Integer questionId, Integer authorId) implements DomainEvent {
+}
@@ -0,0 +1,11 @@
+package com.reddot.app.service.event;
+
+/**
+ * A committed change of the domain, published through {@link DomainEventBus}.
+ * <p>
+ * Events carry ids and plain values only, never entities: they are consumed on another thread,
+ * after the transaction that produced them is closed.
+ */
+public sealed interface DomainEvent permits QuestionCreated, QuestionDeleted, VoteCast, CommentAdded, CommentDeleted,
+        UserRegistered, BadgeAwarded, BadgeRevoked, UserFollowed, UserUnfollowed {
+}
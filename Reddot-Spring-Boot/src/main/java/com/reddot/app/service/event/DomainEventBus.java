@@ -0,0 +1,161 @@
+package com.reddot.app.service.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-process bus that hands {@link DomainEvent}s to their {@link DomainEventListener}s after commit,
+ * so the side effects of a write do not add to its latency.
+ * <p>
+ * Each listener has its own queue of {@code reddot.events.queue-capacity} events and at most one drain task at a time
+ * on a pool of {@code reddot.events.threads} threads; the task hands the queued events to the listener in batches.
+ * A full queue pushes back on the publisher for up to {@code reddot.events.offer-timeout}, then the event is dropped
+ * for that listener and counted. Events still queued on shutdown are drained before the pool stops.
+ * <p>
+ * Metrics per listener: {@code reddot.events.queued}, {@code reddot.events.handled}, {@code reddot.events.failed},
+ * {@code reddot.events.dropped} and the {@code reddot.events.batch} timer.
+ */
+@Slf4j
+@Component
+public class DomainEventBus {
+    private final List<Dispatcher<?>> dispatchers = new ArrayList<>();
+    private final ExecutorService executor;
+    private final int batchSize;
+    private final long offerTimeoutNanos;
+
+    public DomainEventBus(List<DomainEventListener<?>> listeners, MeterRegistry meterRegistry,
+                          @Value("${reddot.events.threads:2}") int threads,
+                          @Value("${reddot.events.queue-capacity:10000}") int queueCapacity,
+                          @Value("${reddot.events.batch-size:100}") int batchSize,
+                          @Value("${reddot.events.offer-timeout:100ms}") Duration offerTimeout) {
+        this.batchSize = batchSize;
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        // one drain task per listener at most, so the pool queue is bounded by the number of listeners
+        this.executor = Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("domain-events-", 0).factory());
+        for (DomainEventListener<?> listener : listeners) {
+            dispatchers.add(new Dispatcher<>(listener, queueCapacity, meterRegistry));
+        }
+    }
+
+    /**
+     * Publish the event once the current transaction commits, or right away outside of a transaction.
+     * Nothing is published if the transaction rolls back.
+     */
+    public void publish(DomainEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(event);
+                }
+            });
+        } else {
+            dispatch(event);
+        }
+    }
+
+    private void dispatch(DomainEvent event) {
+        for (Dispatcher<?> dispatcher : dispatchers) {
+            dispatcher.offer(event);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("DOMAIN EVENTS - shutdown timed out, {} events lost",
+                    dispatchers.stream().mapToInt(d -> d.queue.size()).sum());
+            executor.shutdownNow();
+        }
+    }
+
+    private final class Dispatcher<E extends DomainEvent> implements Runnable {
+        private final DomainEventListener<E> listener;
+        private final BlockingQueue<E> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final Counter handled;
+        private final Counter failed;
+        private final Counter dropped;
+        private final Timer batch;
+
+        Dispatcher(DomainEventListener<E> listener, int queueCapacity, MeterRegistry meterRegistry) {
+            this.listener = listener;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            String name = listener.name();
+            Gauge.builder("reddot.events.queued", queue, BlockingQueue::size)
+                    .description("Events waiting for the listener").tag("listener", name).register(meterRegistry);
+            this.handled = Counter.builder("reddot.events.handled").tag("listener", name).register(meterRegistry);
+            this.failed = Counter.builder("reddot.events.failed").tag("listener", name).register(meterRegistry);
+            this.dropped = Counter.builder("reddot.events.dropped")
+                    .description("Events dropped because the queue stayed full").tag("listener", name).register(meterRegistry);
+            this.batch = Timer.builder("reddot.events.batch").tag("listener", name).register(meterRegistry);
+        }
+
+        void offer(DomainEvent event) {
+            if (!listener.eventType().isInstance(event)) {
+                return;
+            }
+            try {
+                if (!queue.offer(listener.eventType().cast(event), offerTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                    dropped.increment();
+                    log.warn("DOMAIN EVENTS - queue of {} full, {} dropped", listener.name(), event);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                dropped.increment();
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (!queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RuntimeException e) {
+                    // rejected on shutdown
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                List<E> events = new ArrayList<>(batchSize);
+                while (queue.drainTo(events, batchSize) > 0) {
+                    try {
+                        batch.record(() -> listener.onEvents(events));
+                        handled.increment(events.size());
+                    } catch (Exception e) {
+                        failed.increment(events.size());
+                        log.error("DOMAIN EVENTS - {} failed on {} events", listener.name(), events.size(), e);
+                    }
+                    events.clear();
+                }
+            } finally {
+                scheduled.set(false);
+                // an event may have been queued after the last drain
+                schedule();
+            }
+        }
+    }
+}
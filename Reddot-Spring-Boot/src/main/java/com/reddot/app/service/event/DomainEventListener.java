@@ -0,0 +1,24 @@
+package com.reddot.app.service.event;
+
+import org.springframework.util.ClassUtils;
+
+import java.util.List;
+
+/**
+ * Consumer of one type of {@link DomainEvent}, registered by being a Spring bean.
+ * <p>
+ * Events are delivered in publication order, in batches of at most {@code reddot.events.batch-size},
+ * on a thread of the event executor. Batches of one listener never run concurrently.
+ * A batch that throws is logged and counted, it is not retried.
+ */
+public interface DomainEventListener<E extends DomainEvent> {
+
+    Class<E> eventType();
+
+    void onEvents(List<E> events);
+
+    // name of the listener in logs and metrics
+    default String name() {
+        return ClassUtils.getUserClass(this).getSimpleName();
+    }
+}
@@ -0,0 +1,48 @@
+package com.reddot.app.service.event;
+
+import com.reddot.app.entity.Follow;
+import com.reddot.app.entity.UserBadge;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener publishing the domain events of entities that are only written through cascades
+ * from {@code User}: badges and follows.
+ * <p>
+ * Hibernate obtains it from the Spring context; the bus is resolved lazily because entity listeners
+ * are created together with the entity manager factory.
+ */
+@Component
+public class EntityEventPublisher {
+    private final ObjectProvider<DomainEventBus> domainEventBus;
+
+    public EntityEventPublisher(ObjectProvider<DomainEventBus> domainEventBus) {
+        this.domainEventBus = domainEventBus;
+    }
+
+    @PostPersist
+    void onPersist(Object entity) {
+        switch (entity) {
+            case UserBadge ub -> publish(new BadgeAwarded(ub.getUser().getId(), ub.getBadge().getId()));
+            case Follow f -> publish(new UserFollowed(f.getFollower().getId(), f.getFollowed().getId()));
+            default -> {
+            }
+        }
+    }
+
+    @PostRemove
+    void onRemove(Object entity) {
+        switch (entity) {
+            case UserBadge ub -> publish(new BadgeRevoked(ub.getUser().getId(), ub.getBadge().getId()));
+            case Follow f -> publish(new UserUnfollowed(f.getFollower().getId(), f.getFollowed().getId()));
+            default -> {
+            }
+        }
+    }
+
+    private void publish(DomainEvent event) {
+        domainEventBus.ifAvailable(bus -> bus.publish(event));
+    }
+}
@@ -0,0 +1,6 @@
+package com.reddot.app.service.event;
+
+import java.time.LocalDateTime;
+
+public record QuestionCreated(Integer questionId, Integer authorId, LocalDateTime createdAt) implements DomainEvent {
+}
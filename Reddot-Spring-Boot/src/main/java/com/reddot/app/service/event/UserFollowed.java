@@ -0,0 +1,4 @@
+package com.reddot.app.service.event;
+
+public record UserFollowed(Integer followerId, Integer followedId) implements DomainEvent {
+}
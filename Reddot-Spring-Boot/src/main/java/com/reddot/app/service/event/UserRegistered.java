@@ -0,0 +1,8 @@
+package com.reddot.app.service.event;
+
+/**
+ * @param confirmationToken the token of the account confirmation link
+ */
+public record UserRegistered(Integer userId, String username, String email, String confirmationToken)
+        implements DomainEvent {
+}
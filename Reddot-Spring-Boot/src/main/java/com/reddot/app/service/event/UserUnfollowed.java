@@ -0,0 +1,4 @@
+package com.reddot.app.service.event;
+
+public record UserUnfollowed(Integer followerId, Integer followedId) implements DomainEvent {
+}
@@ -0,0 +1,13 @@
+package com.reddot.app.service.event;
+
+/**
+ * A vote toggle that changed the counters of a post.
+ *
+ * @param questionId set when the vote is on a question
+ * @param commentId  set when the vote is on a comment
+ * @param upDelta    change of the upvote count, -1, 0 or 1
+ * @param downDelta  change of the downvote count, -1, 0 or 1
+ */
+public record VoteCast(Integer voterId, Integer questionId, Integer commentId, int upDelta, int downDelta)
+        implements DomainEvent {
+}
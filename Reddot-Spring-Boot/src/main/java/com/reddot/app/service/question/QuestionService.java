@@ -1,8 +1,11 @@
 package com.reddot.app.service.question;
 
+import com.reddot.app.dto.request.FeedCriteria;
 import com.reddot.app.dto.request.QuestionCreateDTO;
 import com.reddot.app.dto.request.QuestionUpdateDTO;
+import com.reddot.app.dto.response.PaginatedResponse;
 import com.reddot.app.dto.response.QuestionDTO;
+import com.reddot.app.dto.response.QuestionSummaryDTO;
 import com.reddot.app.entity.User;
 import com.reddot.app.exception.BadRequestException;
 import com.reddot.app.exception.ResourceNotFoundException;
@@ -11,7 +14,6 @@ import org.springframework.stereotype.Component;
 
 import java.util.List;
 
-//TODO: implement sorting and filtering
 @Component
 public interface QuestionService {
     /**
@@ -46,43 +48,56 @@ public interface QuestionService {
     List<QuestionDTO> questionGetByIdsWithUser(List<Integer> ids, @NonNull User user) throws ResourceNotFoundException;
 
     /**
-     * Get all questions on the site.
+     * Get a page of questions on the site.
      *
-     * @return List of QuestionDTO objects containing the question details
+     * @param criteria the sort mode, cursor and page size
+     * @return a page of QuestionDTO objects and the cursor of the next page
      */
-    default List<QuestionDTO> questionGetAll() {
-        return questionGetAll(false);
+    default PaginatedResponse<QuestionDTO> questionGetAll(FeedCriteria criteria) {
+        return questionGetAll(criteria, false);
     }
 
     /**
-     * Get all questions on the site.
+     * Get a page of questions on the site.
      *
-     * @return List of QuestionDTO objects containing the question details
+     * @param criteria      the sort mode, cursor and page size
+     * @param includeHidden whether to include hidden questions and related hidden associations
+     * @return a page of QuestionDTO objects and the cursor of the next page
      */
-    List<QuestionDTO> questionGetAll(boolean includeHidden);
+    PaginatedResponse<QuestionDTO> questionGetAll(FeedCriteria criteria, boolean includeHidden);
 
     /**
-     * Get the questions asked by the users identified by user id.
+     * Get a page of public questions as summaries, for list views that do not render the body or comments.
+     *
+     * @param criteria the sort mode, cursor and page size
+     * @param viewerId the user whose vote and bookmark flags are set, null for anonymous requests
+     * @return a page of QuestionSummaryDTO objects and the cursor of the next page
+     */
+    PaginatedResponse<QuestionSummaryDTO> questionSummaryGetAll(FeedCriteria criteria, Integer viewerId);
+
+    /**
+     * Get a page of the questions asked by the user identified by user id.
      * <p>
      * This method useful when fetching questions in profile page of a specific user.
      *
      * @param userId        the id of the user
-     * @param sort          the sorting order.
+     * @param criteria      the sort mode, cursor and page size
      * @param includeHidden whether to include hidden questions and related hidden associations
-     * @return List of QuestionDTO objects containing the question details
+     * @return a page of QuestionDTO objects and the cursor of the next page
      */
-    List<QuestionDTO> questionGetAllOfUserId(Integer userId, String sort, boolean includeHidden) throws ResourceNotFoundException;
+    PaginatedResponse<QuestionDTO> questionGetAllOfUserId(Integer userId, FeedCriteria criteria, boolean includeHidden) throws ResourceNotFoundException;
 
     /**
-     * Get all questions on the site.
+     * Get a page of questions on the site.
      * Method returns some user-specific properties related to the questions.
      *
      * @param user          the user requesting the questions
+     * @param criteria      the sort mode, cursor and page size
      * @param includeHidden whether to include hidden questions and related hidden associations
-     * @return List of QuestionDTO objects containing the question details
+     * @return a page of QuestionDTO objects and the cursor of the next page
      * @throws ResourceNotFoundException if the user is not found
      */
-    List<QuestionDTO> questionGetAllWithUser(@NonNull User user, boolean includeHidden) throws ResourceNotFoundException;
+    PaginatedResponse<QuestionDTO> questionGetAllWithUser(@NonNull User user, FeedCriteria criteria, boolean includeHidden) throws ResourceNotFoundException;
 
     /**
      * TODO: should implement review by mod before updating
@@ -114,6 +129,10 @@ public interface QuestionService {
 
     List<QuestionDTO> searchByDisplayName(String displayName);
 
+    List<QuestionSummaryDTO> searchSummaryByKeyword(String content, Integer viewerId);
+
+    List<QuestionSummaryDTO> searchSummaryByDisplayName(String displayName, Integer viewerId);
+
     boolean isQuestionUpvotedByUser(Integer questionId, Integer userId);
 
     boolean isQuestionDownvotedByUser(Integer questionId, Integer userId);
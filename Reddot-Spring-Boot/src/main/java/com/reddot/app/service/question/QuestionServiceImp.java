@@ -1,14 +1,16 @@
 package com.reddot.app.service.question;
 
 import com.reddot.app.assembler.QuestionAssembler;
+import com.reddot.app.dto.request.FeedCriteria;
 import com.reddot.app.dto.request.QuestionCreateDTO;
+import com.reddot.app.dto.request.QuestionSort;
 import com.reddot.app.dto.request.QuestionUpdateDTO;
+import com.reddot.app.dto.response.PaginatedResponse;
 import com.reddot.app.dto.response.QuestionDTO;
-import com.reddot.app.entity.BaseEntity;
+import com.reddot.app.dto.response.QuestionSummaryDTO;
 import com.reddot.app.entity.Question;
 import com.reddot.app.entity.Tag;
 import com.reddot.app.entity.User;
-import com.reddot.app.entity.enumeration.ROLENAME;
 import com.reddot.app.entity.enumeration.VOTETYPE;
 import com.reddot.app.exception.BadRequestException;
 import com.reddot.app.exception.ResourceNotFoundException;
@@ -16,26 +18,46 @@ import com.reddot.app.repository.QuestionRepository;
 import com.reddot.app.repository.TagRepository;
 import com.reddot.app.repository.UserRepository;
 import com.reddot.app.service.bookmark.BookmarkService;
+import com.reddot.app.service.cache.AnonymousResponseCache;
+import com.reddot.app.service.event.DomainEventBus;
+import com.reddot.app.service.event.QuestionCreated;
+import com.reddot.app.service.event.QuestionDeleted;
+import com.reddot.app.service.ranking.HotRankingService;
+import com.reddot.app.service.system.ReferenceDataRegistry;
+import com.reddot.app.service.system.VisibilityFilter;
+import com.reddot.app.service.viewer.ViewerState;
+import com.reddot.app.service.viewer.ViewerStateService;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
 import java.util.*;
-
-import static com.reddot.app.entity.BaseEntity.filterList;
+import java.util.function.Function;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class QuestionServiceImp implements QuestionService {
+    // upper bound used as the cursor of the first page, later than any stored timestamp
+    private static final LocalDateTime FEED_START = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
     private final UserRepository userRepository;
     private final QuestionRepository questionRepository;
     private final QuestionAssembler questionAssembler;
     private final TagRepository tagRepository;
     private final BookmarkService bookmarkService;
+    private final VisibilityFilter visibilityFilter;
+    private final ViewerStateService viewerStateService;
+    private final HotRankingService hotRankingService;
+    private final AnonymousResponseCache anonymousResponseCache;
+    private final DomainEventBus domainEventBus;
+    private final ReferenceDataRegistry referenceDataRegistry;
 
     private static boolean isOwner(User user, Question question) {
         if (user == null || question == null) {
@@ -45,13 +67,6 @@ public class QuestionServiceImp implements QuestionService {
         return question.getUser().getId().equals(user.getId());
     }
 
-    private static boolean isSuperUser(User user) {
-        if (user == null) {
-            return false;
-        }
-        return user.getRoles().stream().anyMatch(role -> role.getName().equals(ROLENAME.ROLE_ADMIN) || role.getName().equals(ROLENAME.ROLE_MODERATOR));
-    }
-
     /**
      * Create a new question with a set of maximum 5 tags.
      *
@@ -78,13 +93,10 @@ public class QuestionServiceImp implements QuestionService {
             }
             Question question = Question.builder().body(dto.getBody()).title(dto.getTitle()).tags(tags).user(creator).build();
             questionRepository.save(question);
-            QuestionDTO dto1 = questionAssembler.toDTO(question);
-
-            // custom logic for user-specific properties
-            dto1.setUpvoted(isQuestionUpvotedByUser(question.getId(), creator.getId()));
-            dto1.setDownvoted(isQuestionDownvotedByUser(question.getId(), creator.getId()));
-            dto1.setBookmarked(isQuestionBookmarkedByUser(question.getId(), creator.getId()));
-            return dto1;
+            anonymousResponseCache.invalidate();
+            hotRankingService.onQuestionCreated(question.getId(), question.getCreatedAt());
+            domainEventBus.publish(new QuestionCreated(question.getId(), creator.getId(), question.getCreatedAt()));
+            return questionAssembler.toDTOList(List.of(question), creator.getId()).getFirst();
         } catch (ResourceNotFoundException e) {
             log.error(e.getMessage());
             throw e;
@@ -94,24 +106,47 @@ public class QuestionServiceImp implements QuestionService {
         }
     }
 
+    @Transactional(readOnly = true)
     @Override
-    public List<QuestionDTO> questionGetAll(boolean includeHidden) {
+    public PaginatedResponse<QuestionDTO> questionGetAll(FeedCriteria criteria, boolean includeHidden) {
         try {
-            List<Question> questions = getAllQuestions(includeHidden);
-            return questionAssembler.toDTOList(questions);
+            List<Question> questions = getFeedQuestions(criteria, null, includeHidden);
+            return getFeedPage(criteria, questions, null);
+        } catch (BadRequestException e) {
+            log.error(e.getMessage());
+            throw e;
         } catch (Exception e) {
             log.error("An error occurred while retrieving the questions", e);
             throw new RuntimeException(e);
         }
     }
 
+    @Transactional(readOnly = true)
     @Override
-    public List<QuestionDTO> questionGetAllWithUser(@NonNull User user, boolean includeHidden) throws ResourceNotFoundException {
+    public PaginatedResponse<QuestionSummaryDTO> questionSummaryGetAll(FeedCriteria criteria, Integer viewerId) {
+        try {
+            List<QuestionSummaryDTO> summaries = getSummaryFeed(criteria);
+            boolean hasNext = summaries.size() > criteria.getSize();
+            List<QuestionSummaryDTO> page = hasNext ? summaries.subList(0, criteria.getSize()) : summaries;
+            String nextCursor = hasNext ? summaryCursorOf(criteria.getSort(), page.getLast()).encode() : null;
+            return new PaginatedResponse<>(fillSummaries(page, viewerId), criteria.getSize(), nextCursor);
+        } catch (BadRequestException e) {
+            log.error(e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            log.error("An error occurred while retrieving the questions", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public PaginatedResponse<QuestionDTO> questionGetAllWithUser(@NonNull User user, FeedCriteria criteria, boolean includeHidden) throws ResourceNotFoundException {
         try {
             Assert.notNull(user, "User cannot be null");
-            List<Question> list = getAllQuestions(includeHidden);
-            return getQuestionDTOS(user, list);
-        } catch (ResourceNotFoundException e) {
+            List<Question> questions = getFeedQuestions(criteria, null, includeHidden);
+            return getFeedPage(criteria, questions, user);
+        } catch (ResourceNotFoundException | BadRequestException e) {
             log.error(e.getMessage());
             throw e;
         } catch (Exception e) {
@@ -120,6 +155,7 @@ public class QuestionServiceImp implements QuestionService {
         }
     }
 
+    @Transactional(readOnly = true)
     @Override
     public List<QuestionDTO> questionGetByIds(List<Integer> ids, boolean includeHidden) {
         try {
@@ -130,6 +166,7 @@ public class QuestionServiceImp implements QuestionService {
         }
     }
 
+    @Transactional(readOnly = true)
     @Override
     public List<QuestionDTO> questionGetByIdsWithUser(List<Integer> ids, @NonNull User user) throws ResourceNotFoundException {
         try {
@@ -141,23 +178,17 @@ public class QuestionServiceImp implements QuestionService {
         }
     }
 
+    @Transactional(readOnly = true)
     @Override
-    public List<QuestionDTO> questionGetAllOfUserId(Integer userId, String sort, boolean includeHidden) throws ResourceNotFoundException {
+    public PaginatedResponse<QuestionDTO> questionGetAllOfUserId(Integer userId, FeedCriteria criteria, boolean includeHidden) throws ResourceNotFoundException {
         try {
-            User loggedInUser = getUserById(userId);
-            if (loggedInUser == null) {
-                throw new ResourceNotFoundException("User with id " + userId + " not found");
-            }
-            List<Question> questions = getQuestionsByUserId(userId, includeHidden);
-            if ("score".equalsIgnoreCase(sort)) {
-                questions.sort((q1, q2) -> Integer.compare(q2.getScore(), q1.getScore()));
-            } else if ("newest".equalsIgnoreCase(sort)) {
-                questions.sort((q1, q2) -> q2.getCreatedAt().compareTo(q1.getCreatedAt()));
-            } else {
-                questions.sort((q1, q2) -> Integer.compare(q2.getScore(), q1.getScore()));
+            if (!userRepository.existsById(userId)) {
+                throw new ResourceNotFoundException("User with id `" + userId + "` not found");
             }
-            return getQuestionDTOS(loggedInUser, questions);
-        } catch (ResourceNotFoundException e) {
+            List<Question> questions = getFeedQuestions(criteria, userId, includeHidden);
+            // viewer flags belong to the requesting user, resolved by the assembler
+            return getFeedPage(criteria, questions, null);
+        } catch (ResourceNotFoundException | BadRequestException e) {
             log.error(e.getMessage());
             throw e;
         } catch (Exception e) {
@@ -166,6 +197,7 @@ public class QuestionServiceImp implements QuestionService {
         }
     }
 
+    @Transactional
     @Override
     public QuestionDTO questionUpdate(User user, QuestionUpdateDTO dto) throws ResourceNotFoundException, BadRequestException {
         try {
@@ -173,7 +205,7 @@ public class QuestionServiceImp implements QuestionService {
 
             // Check if the user is the owner, admin, or moderator
             boolean isOwner = isOwner(user, question);
-            boolean isSuperUser = isSuperUser(user);
+            boolean isSuperUser = referenceDataRegistry.isSuperUser(user);
             if (!isOwner && !isSuperUser) {
                 throw new BadRequestException("You are not permitted to edit this question");
             }
@@ -198,6 +230,7 @@ public class QuestionServiceImp implements QuestionService {
             newTagStrings.forEach(newTagStr -> tags.add(getTagByName(newTagStr)));
             question.setTags(tags);
             questionRepository.save(question);
+            anonymousResponseCache.invalidate();
             return questionAssembler.toDTO(question);
         } catch (BadRequestException | ResourceNotFoundException e) {
             log.error(e.getMessage());
@@ -209,6 +242,7 @@ public class QuestionServiceImp implements QuestionService {
 
     }
 
+    @Transactional
     @Override
     public void questionDelete(Integer id, User user) throws ResourceNotFoundException, BadRequestException {
         try {
@@ -217,12 +251,15 @@ public class QuestionServiceImp implements QuestionService {
 
             // Check if the user is the owner, admin, or moderator
             boolean isOwner = isOwner(user, question);
-            boolean isSuperUser = isSuperUser(user);
+            boolean isSuperUser = referenceDataRegistry.isSuperUser(user);
             if (!(isOwner || isSuperUser) || question.isClosed()) {
                 throw new BadRequestException("You are not permitted to delete this question");
             }
             question.softRm();
             questionRepository.save(question);
+            anonymousResponseCache.invalidate();
+            hotRankingService.onQuestionRemoved(question.getId());
+            domainEventBus.publish(new QuestionDeleted(question.getId(), question.getUser().getId()));
         } catch (ResourceNotFoundException | BadRequestException | NoSuchElementException e) {
             log.error(e.getMessage());
             throw e;
@@ -260,12 +297,12 @@ public class QuestionServiceImp implements QuestionService {
 
     @Override
     public boolean isQuestionUpvotedByUser(Integer questionId, Integer userId) {
-        return questionRepository.existsByIdAndVotes_UserIdAndVotes_VoteTypeId(questionId, userId, VOTETYPE.UPVOTE.getDirection());
+        return questionRepository.existsByIdAndVotes_UserIdAndVotes_VoteTypeId(questionId, userId, referenceDataRegistry.voteTypeId(VOTETYPE.UPVOTE));
     }
 
     @Override
     public boolean isQuestionDownvotedByUser(Integer questionId, Integer userId) {
-        return questionRepository.existsByIdAndVotes_UserIdAndVotes_VoteTypeId(questionId, userId, VOTETYPE.DOWNVOTE.getDirection());
+        return questionRepository.existsByIdAndVotes_UserIdAndVotes_VoteTypeId(questionId, userId, referenceDataRegistry.voteTypeId(VOTETYPE.DOWNVOTE));
     }
 
     @Override
@@ -273,56 +310,178 @@ public class QuestionServiceImp implements QuestionService {
         return bookmarkService.isBookmarkedByUser(userId, questionId);
     }
 
+    @Transactional(readOnly = true)
     @Override
     public List<QuestionDTO> searchByKeyword(String content) {
+        visibilityFilter.apply(false);
         List<Question> questions = questionRepository.findByKeyword(content.toLowerCase());
         return questionAssembler.toDTOList(questions);
     }
 
+    @Transactional(readOnly = true)
     @Override
     public List<QuestionDTO> searchByDisplayName(String displayName) {
+        visibilityFilter.apply(false);
         List<Question> questions = questionRepository.findByDisplayName(displayName.toLowerCase());
         return questionAssembler.toDTOList(questions);
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public List<QuestionSummaryDTO> searchSummaryByKeyword(String content, Integer viewerId) {
+        return fillSummaries(questionRepository.findSummaryByKeyword(content.toLowerCase()), viewerId);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<QuestionSummaryDTO> searchSummaryByDisplayName(String displayName, Integer viewerId) {
+        return fillSummaries(questionRepository.findSummaryByDisplayName(displayName.toLowerCase()), viewerId);
+    }
+
     // Utility method
-    private List<Question> filterQuestion(List<Question> questions) {
-        questions = filterList(questions, BaseEntity::isPublic);
-        questions.forEach(Question::filterPublicAssociation);
-        return questions;
+    /**
+     * Load one feed page plus one extra row, the extra row only tells whether a next page exists.
+     *
+     * @param userId optional author filter
+     */
+    private List<Question> getFeedQuestions(FeedCriteria criteria, Integer userId, boolean includeHidden) {
+        visibilityFilter.apply(includeHidden);
+        FeedCriteria.Cursor after = criteria.getCursor() == null ? null : FeedCriteria.Cursor.decode(criteria.getCursor());
+        int afterId = after == null ? Integer.MAX_VALUE : after.id();
+        Pageable limit = PageRequest.of(0, criteria.getSize() + 1);
+        try {
+            return switch (criteria.getSort()) {
+                case NEWEST -> questionRepository.findFeedByNewest(userId,
+                        after == null ? FEED_START : LocalDateTime.parse(after.key()), afterId, limit);
+                case SCORE -> questionRepository.findFeedByScore(userId,
+                        after == null ? Integer.MAX_VALUE : Integer.parseInt(after.key()), afterId, limit);
+                case ACTIVE -> questionRepository.findFeedByActivity(userId,
+                        after == null ? FEED_START : LocalDateTime.parse(after.key()), afterId, limit);
+                case HOT -> {
+                    List<Integer> ids = getHotIds(userId, after, limit.getPageSize());
+                    yield orderByIds(ids, questionRepository.findDetailByIds(ids), Question::getId);
+                }
+            };
+        } catch (DateTimeException | NumberFormatException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
     }
 
-    private List<Question> getAllQuestions(boolean includeHidden) {
-        List<Question> questions = questionRepository.findAll();
-        return includeHidden ? questions : filterQuestion(questions);
+    /**
+     * @param viewer the user whose flags are set, null to use the authenticated principal if any
+     */
+    private PaginatedResponse<QuestionDTO> getFeedPage(FeedCriteria criteria, List<Question> questions, User viewer) {
+        boolean hasNext = questions.size() > criteria.getSize();
+        List<Question> page = hasNext ? questions.subList(0, criteria.getSize()) : questions;
+        String nextCursor = hasNext ? cursorOf(criteria.getSort(), page.getLast()).encode() : null;
+        List<QuestionDTO> dtoList = viewer == null ? questionAssembler.toDTOList(page) : getQuestionDTOS(viewer, page);
+        return new PaginatedResponse<>(dtoList, criteria.getSize(), nextCursor);
     }
 
-    private List<Question> getQuestionsByUserId(Integer userId, boolean includeHidden) {
-        List<Question> questions = questionRepository.findByUserId(userId);
-        return includeHidden ? questions : filterQuestion(questions);
+    private FeedCriteria.Cursor cursorOf(QuestionSort sort, Question last) {
+        String key = switch (sort) {
+            case NEWEST -> last.getCreatedAt().toString();
+            case SCORE -> String.valueOf(last.getScore());
+            case ACTIVE -> last.getLastActivityAt().toString();
+            case HOT -> hotKeyOf(last.getId(), last.getCreatedAt(), last.getScore(), last.getCommentCount());
+        };
+        return new FeedCriteria.Cursor(key, last.getId());
+    }
+
+    /**
+     * Same keyset walk as {@link #getFeedQuestions}, reading summary rows instead of entities.
+     * Summaries are public only.
+     */
+    private List<QuestionSummaryDTO> getSummaryFeed(FeedCriteria criteria) {
+        visibilityFilter.apply(false);
+        FeedCriteria.Cursor after = criteria.getCursor() == null ? null : FeedCriteria.Cursor.decode(criteria.getCursor());
+        int afterId = after == null ? Integer.MAX_VALUE : after.id();
+        Pageable limit = PageRequest.of(0, criteria.getSize() + 1);
+        try {
+            return switch (criteria.getSort()) {
+                case NEWEST -> questionRepository.findSummaryFeedByNewest(null,
+                        after == null ? FEED_START : LocalDateTime.parse(after.key()), afterId, limit);
+                case SCORE -> questionRepository.findSummaryFeedByScore(null,
+                        after == null ? Integer.MAX_VALUE : Integer.parseInt(after.key()), afterId, limit);
+                case ACTIVE -> questionRepository.findSummaryFeedByActivity(null,
+                        after == null ? FEED_START : LocalDateTime.parse(after.key()), afterId, limit);
+                case HOT -> {
+                    List<Integer> ids = getHotIds(null, after, limit.getPageSize());
+                    yield orderByIds(ids, questionRepository.findSummaryByIds(ids), QuestionSummaryDTO::getQuestionId);
+                }
+            };
+        } catch (DateTimeException | NumberFormatException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    private FeedCriteria.Cursor summaryCursorOf(QuestionSort sort, QuestionSummaryDTO last) {
+        String key = switch (sort) {
+            case NEWEST -> last.getCreationDate().toString();
+            case SCORE -> String.valueOf(last.getScore());
+            case ACTIVE -> last.getLastActivityDate().toString();
+            case HOT -> hotKeyOf(last.getQuestionId(), last.getCreationDate(), last.getScore(), last.getCommentCount());
+        };
+        return new FeedCriteria.Cursor(key, last.getQuestionId());
+    }
+
+    /**
+     * Ids of one page of the hot ranking, the questions are then loaded by id.
+     * The ranking covers the whole site, so it cannot be narrowed to one author.
+     */
+    private List<Integer> getHotIds(Integer userId, FeedCriteria.Cursor after, int limit) {
+        if (userId != null) {
+            throw new BadRequestException("Sort `hot` is not supported on the questions of a user");
+        }
+        HotRankingService.Entry from = after == null ? null : HotRankingService.Entry.at(Double.parseDouble(after.key()), after.id());
+        return hotRankingService.page(from, limit).stream().map(HotRankingService.Entry::questionId).toList();
+    }
+
+    // the hotness the ranking holds for the question, or the one of its stored counters if it left the ranking
+    private String hotKeyOf(Integer id, LocalDateTime createdAt, int score, int commentCount) {
+        HotRankingService.Entry entry = hotRankingService.entryOf(id);
+        return String.valueOf(entry != null ? entry.hot() : HotRankingService.hotness(createdAt, score, commentCount));
+    }
+
+    // rows loaded with an IN query come back in table order, put them back in the order of the ids
+    private static <T> List<T> orderByIds(List<Integer> ids, List<T> rows, Function<T, Integer> idOf) {
+        Map<Integer, T> byId = new HashMap<>();
+        rows.forEach(row -> byId.put(idOf.apply(row), row));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Set the tags and viewer flags of a list of summaries, one query for the tags and at most two for the flags.
+     */
+    private List<QuestionSummaryDTO> fillSummaries(List<QuestionSummaryDTO> summaries, Integer viewerId) {
+        if (summaries.isEmpty()) {
+            return summaries;
+        }
+        Map<Integer, QuestionSummaryDTO> byId = new LinkedHashMap<>();
+        summaries.forEach(summary -> byId.put(summary.getQuestionId(), summary));
+        for (Object[] row : questionRepository.findTagNamesByQuestionIds(byId.keySet())) {
+            byId.get((Integer) row[0]).getTags().add((String) row[1]);
+        }
+        ViewerState state = viewerStateService.forQuestions(viewerId, byId.keySet());
+        for (QuestionSummaryDTO summary : summaries) {
+            summary.setUpvoted(state.isUpvoted(summary.getQuestionId()));
+            summary.setDownvoted(state.isDownvoted(summary.getQuestionId()));
+            summary.setBookmarked(state.isBookmarked(summary.getQuestionId()));
+        }
+        return summaries;
     }
 
     private List<Question> getQuestionByIds(List<Integer> ids, boolean includeHidden) {
-        List<Question> questions = questionRepository.findAllById(ids);
-        return includeHidden ? questions : filterQuestion(questions);
+        visibilityFilter.apply(includeHidden);
+        return includeHidden ? questionRepository.findModerationByIds(ids) : questionRepository.findDetailByIds(ids);
     }
 
     private List<QuestionDTO> getQuestionDTOS(@NonNull User user, List<Question> list) {
-        List<QuestionDTO> dtoList = questionAssembler.toDTOList(list);
-        dtoList.forEach(questionDTO -> {
-            questionDTO.setUpvoted(isQuestionUpvotedByUser(questionDTO.getQuestionId(), user.getId()));
-            questionDTO.setDownvoted(isQuestionDownvotedByUser(questionDTO.getQuestionId(), user.getId()));
-            questionDTO.setBookmarked(isQuestionBookmarkedByUser(questionDTO.getQuestionId(), user.getId()));
-        });
-        return dtoList;
+        return questionAssembler.toDTOList(list, user.getId());
     }
 
     private Tag getTagByName(String tagString) {
         return tagRepository.findByName(tagString).orElseThrow(() -> new ResourceNotFoundException("Tag with name `" + tagString + "` not found"));
     }
 
-    private User getUserById(Integer userId) {
-        return userRepository.findById(userId).orElseThrow(() -> new ResourceNotFoundException("User with id `" + userId + "` not found"));
-    }
-
 }
\ No newline at end of file
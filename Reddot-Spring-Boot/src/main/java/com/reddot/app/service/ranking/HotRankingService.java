@@ -0,0 +1,203 @@
+package com.reddot.app.service.ranking;
+
+import com.reddot.app.repository.QuestionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Keeps the hottest public questions in memory, ordered by a time-decayed score.
+ * <p>
+ * The hotness of a question is {@code sign(p) * log10(max(|p|, 1)) + age / DECAY_SECONDS} where
+ * {@code p} is its score plus its comment count and {@code age} is its creation time in seconds.
+ * A question needs ten times the popularity to rank like one posted {@link #DECAY_SECONDS} later,
+ * so the order between two questions only changes when they are voted or commented on, never with time.
+ * <p>
+ * The index is bounded to {@code reddot.ranking.hot.capacity} questions. Writes update it in place once their
+ * transaction commits, so a rolled back write leaves no trace and a new question is only ranked once it can be read;
+ * questions outside of the index are ignored until the next rebuild from the database,
+ * which runs at startup and every ten minutes. Under concurrent writes the order is approximate.
+ */
+@Slf4j
+@Service
+public class HotRankingService {
+    // seconds for a question to need ten times the popularity to keep its rank, 12.5 hours
+    static final double DECAY_SECONDS = 45000;
+    // reference instant of the age term, keeps the doubles small
+    private static final long EPOCH_SECONDS = 1704067200L; // 2024-01-01T00:00:00Z
+    // number of newest questions read on rebuild for each slot of the index
+    private static final int CANDIDATE_FACTOR = 4;
+
+    private final QuestionRepository questionRepository;
+    private final int capacity;
+    private final ConcurrentSkipListSet<Entry> index = new ConcurrentSkipListSet<>();
+    private final ConcurrentHashMap<Integer, Entry> entries = new ConcurrentHashMap<>();
+
+    public HotRankingService(QuestionRepository questionRepository,
+                             @Value("${reddot.ranking.hot.capacity:1000}") int capacity) {
+        this.questionRepository = questionRepository;
+        this.capacity = capacity;
+    }
+
+    static double hotness(long createdAtSeconds, int score, int commentCount) {
+        int popularity = score + commentCount;
+        double order = Math.log10(Math.max(Math.abs(popularity), 1));
+        return Math.signum(popularity) * order + (createdAtSeconds - EPOCH_SECONDS) / DECAY_SECONDS;
+    }
+
+    /**
+     * Hotness of a question from its stored counters, used when it is not in the index.
+     */
+    public static double hotness(LocalDateTime createdAt, int score, int commentCount) {
+        return hotness(toSeconds(createdAt), score, commentCount);
+    }
+
+    private static long toSeconds(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+
+    public void onQuestionCreated(Integer questionId, LocalDateTime createdAt) {
+        afterCommit(() -> {
+            entries.compute(questionId, (id, old) -> replace(old, new Entry(id, toSeconds(createdAt), 0, 0)));
+            trim();
+        });
+    }
+
+    /**
+     * @param scoreDelta change of {@code upvotes * 3 - downvotes}
+     */
+    public void onQuestionVoted(Integer questionId, int scoreDelta) {
+        afterCommit(() -> entries.computeIfPresent(questionId, (id, old) ->
+                replace(old, new Entry(id, old.createdAt(), old.score() + scoreDelta, old.commentCount()))));
+    }
+
+    /**
+     * @param delta +1 for a new comment or reply, -1 for a deleted one
+     */
+    public void onQuestionCommented(Integer questionId, int delta) {
+        afterCommit(() -> entries.computeIfPresent(questionId, (id, old) ->
+                replace(old, new Entry(id, old.createdAt(), old.score(), old.commentCount() + delta))));
+    }
+
+    public void onQuestionRemoved(Integer questionId) {
+        afterCommit(() -> remove(questionId));
+    }
+
+    /**
+     * Read one page of the ranking.
+     *
+     * @param after the last entry of the previous page, null for the first page
+     * @param limit maximum number of entries
+     * @return the entries ranked right after {@code after}, hottest first
+     */
+    public List<Entry> page(Entry after, int limit) {
+        Iterator<Entry> iterator = (after == null ? index : index.tailSet(after, false)).iterator();
+        List<Entry> page = new ArrayList<>(limit);
+        while (iterator.hasNext() && page.size() < limit) {
+            page.add(iterator.next());
+        }
+        return page;
+    }
+
+    /**
+     * @return the current entry of the question, null if it is not in the index
+     */
+    public Entry entryOf(Integer questionId) {
+        return entries.get(questionId);
+    }
+
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 */10 * * * *")
+    public void rebuild() {
+        List<Object[]> rows = questionRepository.findHotCandidates(PageRequest.of(0, capacity * CANDIDATE_FACTOR));
+        Map<Integer, Entry> fresh = new HashMap<>(rows.size());
+        for (Object[] row : rows) {
+            Integer id = (Integer) row[0];
+            fresh.put(id, new Entry(id, toSeconds((LocalDateTime) row[1]), (Integer) row[2], (Integer) row[3]));
+        }
+        fresh.values().forEach(entry -> entries.compute(entry.questionId(), (id, old) -> replace(old, entry)));
+        entries.keySet().stream()
+                .filter(id -> !fresh.containsKey(id))
+                .toList()
+                .forEach(this::remove);
+        trim();
+        log.info("HOT RANKING REBUILT - {} questions", entries.size());
+    }
+
+    // run the update once the current transaction commits, or right away outside of a transaction
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    private void remove(Integer questionId) {
+        entries.computeIfPresent(questionId, (id, old) -> replace(old, null));
+    }
+
+    // swap an entry in the ordered index, must run inside a compute of the same key
+    private Entry replace(Entry old, Entry next) {
+        if (old != null) {
+            index.remove(old);
+        }
+        if (next != null) {
+            index.add(next);
+        }
+        return next;
+    }
+
+    private void trim() {
+        while (entries.size() > capacity) {
+            Entry coldest = index.pollLast();
+            if (coldest == null) {
+                return;
+            }
+            entries.remove(coldest.questionId(), coldest);
+        }
+    }
+
+    /**
+     * A ranked question, ordered hottest first then by descending id.
+     */
+    public record Entry(Integer questionId, long createdAt, int score, int commentCount, double hot)
+            implements Comparable<Entry> {
+
+        public Entry(Integer questionId, long createdAt, int score, int commentCount) {
+            this(questionId, createdAt, score, commentCount, hotness(createdAt, score, commentCount));
+        }
+
+        /**
+         * Position of a cursor, compares like an entry with the given hotness and id.
+         */
+        public static Entry at(double hot, Integer questionId) {
+            return new Entry(questionId, 0, 0, 0, hot);
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byHot = Double.compare(other.hot, this.hot);
+            return byHot != 0 ? byHot : Integer.compare(other.questionId, this.questionId);
+        }
+    }
+}
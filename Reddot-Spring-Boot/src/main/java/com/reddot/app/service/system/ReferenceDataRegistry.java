@@ -0,0 +1,134 @@
+package com.reddot.app.service.system;
+
+import com.reddot.app.entity.Badge;
+import com.reddot.app.entity.Role;
+import com.reddot.app.entity.User;
+import com.reddot.app.entity.VoteType;
+import com.reddot.app.entity.enumeration.ROLENAME;
+import com.reddot.app.entity.enumeration.VOTETYPE;
+import com.reddot.app.repository.BadgeRepository;
+import com.reddot.app.repository.RoleRepository;
+import com.reddot.app.repository.VoteTypeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory copy of the fixed reference tables: vote types, roles and badges.
+ * <p>
+ * The tables are seeded once and never change at runtime, so their ids are loaded when the application
+ * is ready (after {@code DatabaseSeeder}) into immutable {@link EnumMap}s, and hot paths use the ids
+ * directly instead of querying by name. Call {@link #refresh()} after changing the tables by hand.
+ * <p>
+ * A lookup that misses reloads the tables, so a registry read before the first load still works. After the first
+ * load, misses reload at most once every {@value #MISS_REFRESH_INTERVAL_MS} ms: a name that does not exist
+ * fails without querying the three tables each time.
+ */
+@Slf4j
+@Component
+public class ReferenceDataRegistry {
+    private static final Set<ROLENAME> SUPER_USER_ROLES = Set.of(ROLENAME.ROLE_ADMIN, ROLENAME.ROLE_MODERATOR);
+    static final long MISS_REFRESH_INTERVAL_MS = 30_000;
+
+    private final VoteTypeRepository voteTypeRepository;
+    private final RoleRepository roleRepository;
+    private final BadgeRepository badgeRepository;
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private final AtomicLong lastMissRefreshAt = new AtomicLong();
+
+    public ReferenceDataRegistry(VoteTypeRepository voteTypeRepository, RoleRepository roleRepository,
+                                 BadgeRepository badgeRepository) {
+        this.voteTypeRepository = voteTypeRepository;
+        this.roleRepository = roleRepository;
+        this.badgeRepository = badgeRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void refresh() {
+        Map<VOTETYPE, Integer> voteTypeIds = new EnumMap<>(VOTETYPE.class);
+        for (VoteType voteType : voteTypeRepository.findAll()) {
+            voteTypeIds.put(voteType.getType(), voteType.getId());
+        }
+        Map<ROLENAME, Integer> roleIds = new EnumMap<>(ROLENAME.class);
+        for (Role role : roleRepository.findAll()) {
+            roleIds.put(role.getName(), role.getId());
+        }
+        Set<Integer> superUserRoleIds = SUPER_USER_ROLES.stream()
+                .filter(roleIds::containsKey)
+                .map(roleIds::get)
+                .collect(Collectors.toUnmodifiableSet());
+        Map<String, Integer> badgeIds = badgeRepository.findAll().stream()
+                .collect(Collectors.toUnmodifiableMap(Badge::getName, Badge::getId));
+        snapshot = new Snapshot(Collections.unmodifiableMap(voteTypeIds), Collections.unmodifiableMap(roleIds),
+                superUserRoleIds, badgeIds);
+        log.info("REFERENCE DATA LOADED - {} vote types, {} roles, {} badges",
+                voteTypeIds.size(), roleIds.size(), badgeIds.size());
+    }
+
+    public Integer voteTypeId(VOTETYPE type) {
+        return lookup(s -> s.voteTypeIds().get(type), "Vote type `" + type + "` not found");
+    }
+
+    public Integer roleId(ROLENAME name) {
+        return lookup(s -> s.roleIds().get(name), "Role `" + name + "` not found");
+    }
+
+    public Integer badgeId(String name) {
+        return lookup(s -> s.badgeIds().get(name), "Badge `" + name + "` not found");
+    }
+
+    /**
+     * @return true if the user has the admin or the moderator role, compared by id
+     */
+    public boolean isSuperUser(User user) {
+        if (user == null) {
+            return false;
+        }
+        if (snapshot == Snapshot.EMPTY) {
+            refresh();
+        }
+        Set<Integer> superUserRoleIds = snapshot.superUserRoleIds();
+        for (Role role : user.getRoles()) {
+            if (superUserRoleIds.contains(role.getId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Integer lookup(Function<Snapshot, Integer> getter, String notFoundMessage) {
+        Integer id = getter.apply(snapshot);
+        if (id == null && refreshOnMiss()) {
+            refresh();
+            id = getter.apply(snapshot);
+        }
+        if (id == null) {
+            throw new IllegalStateException(notFoundMessage);
+        }
+        return id;
+    }
+
+    // one caller refreshes per interval, every caller before the first load
+    private boolean refreshOnMiss() {
+        if (snapshot == Snapshot.EMPTY) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        long last = lastMissRefreshAt.get();
+        return now - last >= MISS_REFRESH_INTERVAL_MS && lastMissRefreshAt.compareAndSet(last, now);
+    }
+
+    private record Snapshot(Map<VOTETYPE, Integer> voteTypeIds, Map<ROLENAME, Integer> roleIds,
+                            Set<Integer> superUserRoleIds, Map<String, Integer> badgeIds) {
+        static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of(), Set.of(), Map.of());
+    }
+}
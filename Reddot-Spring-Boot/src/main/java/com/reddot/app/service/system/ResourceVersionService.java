@@ -0,0 +1,101 @@
+package com.reddot.app.service.system;
+
+import com.reddot.app.repository.CommentRepository;
+import com.reddot.app.repository.QuestionRepository;
+import com.reddot.app.service.viewer.ViewerState;
+import com.reddot.app.service.viewer.ViewerStateService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Computes validators for conditional GET requests from the version columns of the requested rows,
+ * without loading the entities.
+ * <p>
+ * The ETag covers every column that changes the rendered resource (status, edit date, counters,
+ * last comment change and the counters of the embedded comments for questions) and the state of the viewer
+ * on the resource and its embedded comments, so it is different for each user.
+ * Changes to the author profile are not covered.
+ * <p>
+ * Comment votes do not change any date, so questions that embed comments have no Last-Modified validator.
+ */
+@Service
+@RequiredArgsConstructor
+public class ResourceVersionService {
+    private final QuestionRepository questionRepository;
+    private final CommentRepository commentRepository;
+    private final ViewerStateService viewerStateService;
+
+    @Transactional(readOnly = true)
+    public ResourceVersion ofQuestions(List<Integer> ids, Integer viewerId) {
+        List<Object[]> rows = questionRepository.findVersionsByIds(ids);
+        List<Object[]> comments = commentRepository.findCountersByQuestionIds(ids);
+        List<Integer> commentIds = comments.stream().map(row -> (Integer) row[1]).toList();
+        StringBuilder fingerprint = fingerprint("questions", ids, rows);
+        fingerprint.append("comments");
+        comments.stream().sorted(Comparator.comparing(row -> (Integer) row[1]))
+                .forEach(row -> fingerprint.append(Arrays.toString(row)));
+        if (viewerId != null) {
+            append(fingerprint.append(viewerId), viewerStateService.forQuestions(viewerId, ids));
+            append(fingerprint, viewerStateService.forComments(viewerId, commentIds));
+        }
+        return version(fingerprint, viewerId == null && comments.isEmpty() ? lastModified(rows) : -1);
+    }
+
+    @Transactional(readOnly = true)
+    public ResourceVersion ofComments(List<Integer> ids, Integer viewerId) {
+        List<Object[]> rows = commentRepository.findVersionsByIds(ids);
+        StringBuilder fingerprint = fingerprint("comments", ids, rows);
+        if (viewerId != null) {
+            append(fingerprint.append(viewerId), viewerStateService.forComments(viewerId, ids));
+        }
+        // the viewer flags can change without touching any row of the resource
+        return version(fingerprint, viewerId == null ? lastModified(rows) : -1);
+    }
+
+    private static StringBuilder fingerprint(String type, Collection<Integer> ids, List<Object[]> rows) {
+        StringBuilder fingerprint = new StringBuilder(type).append(new TreeSet<>(ids));
+        rows.stream().sorted(Comparator.comparing(row -> (Integer) row[0]))
+                .forEach(row -> fingerprint.append(Arrays.toString(row)));
+        return fingerprint;
+    }
+
+    private static void append(StringBuilder fingerprint, ViewerState state) {
+        fingerprint.append(new TreeMap<>(state.votes())).append(new TreeSet<>(state.bookmarks()));
+    }
+
+    private static long lastModified(List<Object[]> rows) {
+        long lastModified = -1;
+        for (Object[] row : rows) {
+            for (Object column : row) {
+                if (column instanceof LocalDateTime time) {
+                    lastModified = Math.max(lastModified, time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+                }
+            }
+        }
+        return lastModified;
+    }
+
+    private static ResourceVersion version(StringBuilder fingerprint, long lastModified) {
+        String etag = "\"" + DigestUtils.md5DigestAsHex(fingerprint.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+        return new ResourceVersion(etag, lastModified);
+    }
+
+    /**
+     * @param etag         strong entity tag, quoted
+     * @param lastModified epoch millis of the latest change, -1 when it cannot be used as a validator
+     */
+    public record ResourceVersion(String etag, long lastModified) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.reddot.app.service.system;
+
+import com.reddot.app.entity.BaseEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.stereotype.Component;
+
+/**
+ * Switches the {@link BaseEntity#PUBLIC_FILTER} on the current Hibernate session.
+ * <p>
+ * While enabled, queries on questions and comments and the {@code Question.comments} collection only
+ * read PUBLIC rows, so deleted and hidden rows are never hydrated.
+ * Direct loads by id ({@code findById}) are not affected.
+ * <p>
+ * Call it inside a transaction: the filter lives on the session, so it only covers the queries
+ * issued by that same session.
+ */
+@Component
+public class VisibilityFilter {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * @param includeHidden true for admin paths that must see every status, false to read PUBLIC rows only
+     */
+    public void apply(boolean includeHidden) {
+        Session session = entityManager.unwrap(Session.class);
+        if (includeHidden) {
+            session.disableFilter(BaseEntity.PUBLIC_FILTER);
+        } else {
+            session.enableFilter(BaseEntity.PUBLIC_FILTER);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.reddot.app.service.user;
+
+import com.reddot.app.service.email.MailLinks;
+import com.reddot.app.service.email.MailSenderManager;
+import com.reddot.app.service.event.DomainEventListener;
+import com.reddot.app.service.event.UserRegistered;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends the account confirmation email of newly registered users, off the registration request.
+ * <p>
+ * Each email is sent on its own: a failed send does not stop the rest of the batch. It is retried
+ * after {@code reddot.mail.confirmation.retry-delay}, doubled at each attempt, up to
+ * {@code reddot.mail.confirmation.max-attempts} sends, then given up; the user can still ask for a new email.
+ * Failures are counted in {@code reddot.mail.confirmation.failed}, tagged retried or abandoned.
+ */
+@Slf4j
+@Component
+public class AccountConfirmationMailer implements DomainEventListener<UserRegistered> {
+    private final MailSenderManager mailSenderManager;
+    private final MailLinks mailLinks;
+    private final int maxAttempts;
+    private final Duration retryDelay;
+    private final Counter retried;
+    private final Counter abandoned;
+    private final ScheduledExecutorService retries =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("confirmation-mail-retry").factory());
+
+    public AccountConfirmationMailer(MailSenderManager mailSenderManager, MailLinks mailLinks, MeterRegistry meterRegistry,
+                                     @Value("${reddot.mail.confirmation.max-attempts:3}") int maxAttempts,
+                                     @Value("${reddot.mail.confirmation.retry-delay:1m}") Duration retryDelay) {
+        this.mailSenderManager = mailSenderManager;
+        this.mailLinks = mailLinks;
+        this.maxAttempts = maxAttempts;
+        this.retryDelay = retryDelay;
+        this.retried = Counter.builder("reddot.mail.confirmation.failed")
+                .description("Account confirmation emails that failed to send").tag("outcome", "retried")
+                .register(meterRegistry);
+        this.abandoned = Counter.builder("reddot.mail.confirmation.failed")
+                .description("Account confirmation emails that failed to send").tag("outcome", "abandoned")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Class<UserRegistered> eventType() {
+        return UserRegistered.class;
+    }
+
+    @Override
+    public void onEvents(List<UserRegistered> events) {
+        for (UserRegistered event : events) {
+            send(event, 1);
+        }
+    }
+
+    private void send(UserRegistered event, int attempt) {
+        try {
+            mailSenderManager.sendEmail(event.email(), "Reddot Account Confirmation", body(event));
+        } catch (Exception e) {
+            if (attempt >= maxAttempts) {
+                abandoned.increment();
+                log.error("CONFIRMATION EMAIL FAILED - user {}, giving up after {} attempts", event.userId(), attempt, e);
+                return;
+            }
+            retried.increment();
+            long delay = retryDelay.toMillis() << (attempt - 1);
+            log.warn("CONFIRMATION EMAIL FAILED - user {}, attempt {}, retrying in {} ms: {}",
+                    event.userId(), attempt, delay, e.getMessage());
+            try {
+                retries.schedule(() -> send(event, attempt + 1), delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException shuttingDown) {
+                log.error("CONFIRMATION EMAIL FAILED - user {}, not retried on shutdown", event.userId());
+            }
+        }
+    }
+
+    private String body(UserRegistered event) {
+        // Construct the email body in HTML
+        return String.format(
+                """
+                        <html>
+                                 <body style="font-family: 'Segoe UI', Arial, sans-serif; margin: 0; padding: 0; background-color: #f4f6f8;">
+                                     <div style="max-width: 600px; margin: 40px auto; background: #ffffff; padding: 40px; border-radius: 12px; box-shadow: 0 4px 6px rgba(0, 0, 0, 0.1);">
+                                         <div style="text-align: center; margin-bottom: 30px;">
+                                             <img src="https://www.reddotcorp.com/uploads/1/2/7/5/12752286/reddotlogo.png" alt="Reddot Logo" style="max-width: 200px; height: auto;" />
+                                         </div>
+                        
+                                         <h2 style="text-align: center; color: #2E7D32; margin: 0 0 30px 0; font-size: 28px; font-weight: 600;">
+                                             Welcome to Reddot, %s!
+                                         </h2>
+                        
+                                         <p style="color: #333333; font-size: 16px; line-height: 1.6; margin-bottom: 25px;">
+                                             Thank you for signing up. To get started with your Reddot journey, please confirm your account by clicking the button below:
+                                         </p>
+                        
+                                         <div style="text-align: center; margin: 35px 0;">
+                                             <a href="%s"
+                                                style="display: inline-block;
+                                                       padding: 14px 32px;
+                                                       background-color: #2E7D32;
+                                                       color: white;
+                                                       text-decoration: none;
+                                                       border-radius: 6px;
+                                                       font-weight: 600;
+                                                       font-size: 16px;
+                                                       transition: background-color 0.3s ease;
+                                                       box-shadow: 0 2px 4px rgba(0, 0, 0, 0.1);">
+                                                 Confirm Your Account
+                                             </a>
+                                         </div>
+                        
+                                         <p style="color: #666666; font-size: 14px; line-height: 1.5; margin: 25px 0; text-align: center;">
+                                             If you did not create an account with Reddot, please disregard this email.
+                                         </p>
+                        
+                                         <hr style="border: none; border-top: 1px solid #e0e0e0; margin: 30px 0;">
+                        
+                                         <div style="text-align: center;">
+                                             <p style="color: #2E7D32; font-weight: 600; margin: 0;">Best Regards,</p>
+                                             <p style="color: #666666; margin: 5px 0;">The Reddot Team</p>
+                                         </div>
+                                     </div>
+                                 </body>
+                                 </html>
+                        """,
+                event.username(), mailLinks.withToken("/auth/confirm-account", event.confirmationToken()));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        retries.shutdownNow();
+    }
+}
@@ -0,0 +1,115 @@
+package com.reddot.app.service.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.reddot.app.dto.response.ShallowUserDTO;
+import com.reddot.app.repository.UserBadgeRepository;
+import com.reddot.app.repository.UserProfileView;
+import com.reddot.app.repository.UserRepository;
+import com.reddot.app.service.event.BadgeAwarded;
+import com.reddot.app.service.event.BadgeRevoked;
+import com.reddot.app.service.event.DomainEvent;
+import com.reddot.app.service.event.DomainEventListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of the author cards embedded in questions and comments, by user id.
+ * <p>
+ * A card is the display name, avatar, website and badge counts by tier of a user. The misses of a page are
+ * loaded together, with one query for the profiles and one for the badge counts, so a page costs two queries
+ * at most whatever the number of authors. Cards are evicted by the profile writes ({@link #evict(Integer)})
+ * and by committed badge events, then expire after {@code reddot.cache.authors.ttl}.
+ * <p>
+ * Every eviction bumps a generation; a load that started before an eviction is returned but not stored,
+ * so a card read before a write cannot be cached after it.
+ */
+@Component
+public class AuthorCardCache implements DomainEventListener<DomainEvent> {
+    private final UserRepository userRepository;
+    private final UserBadgeRepository userBadgeRepository;
+    private final Cache<Integer, ShallowUserDTO> cards;
+    private final AtomicLong generation = new AtomicLong();
+
+    public AuthorCardCache(UserRepository userRepository, UserBadgeRepository userBadgeRepository,
+                           @Value("${reddot.cache.authors.max-entries:50000}") long maxEntries,
+                           @Value("${reddot.cache.authors.ttl:30m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.userBadgeRepository = userBadgeRepository;
+        this.cards = Caffeine.newBuilder().maximumSize(maxEntries).expireAfterWrite(ttl).build();
+    }
+
+    /**
+     * @return the cards of the given users by id, without the users that do not exist
+     */
+    public Map<Integer, ShallowUserDTO> getAll(Collection<Integer> userIds) {
+        Set<Integer> ids = new HashSet<>(userIds);
+        ids.remove(null);
+        Map<Integer, ShallowUserDTO> result = new HashMap<>(cards.getAllPresent(ids));
+        Set<Integer> missing = new HashSet<>(ids);
+        missing.removeAll(result.keySet());
+        if (missing.isEmpty()) {
+            return result;
+        }
+        long loadedAt = generation.get();
+        Map<Integer, Map<String, Integer>> badgeCounts = new HashMap<>();
+        for (Object[] row : userBadgeRepository.countBadgesByTier(missing)) {
+            badgeCounts.computeIfAbsent((Integer) row[0], id -> new TreeMap<>())
+                    .put((String) row[1], ((Number) row[2]).intValue());
+        }
+        Map<Integer, ShallowUserDTO> loaded = new HashMap<>();
+        for (UserProfileView view : userRepository.findProfilesByIds(missing)) {
+            loaded.put(view.userId(), new ShallowUserDTO(view.userId(), view.displayName(), view.avatarLink(),
+                    view.websiteUrl(), Collections.unmodifiableMap(badgeCounts.getOrDefault(view.userId(), Map.of()))));
+        }
+        if (generation.get() == loadedAt) {
+            cards.putAll(loaded);
+        }
+        result.putAll(loaded);
+        return result;
+    }
+
+    /**
+     * Drop the card now and again once the current transaction commits.
+     */
+    public void evict(Integer userId) {
+        invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(userId);
+                }
+            });
+        }
+    }
+
+    private void invalidate(Integer userId) {
+        generation.incrementAndGet();
+        cards.invalidate(userId);
+    }
+
+    @Override
+    public Class<DomainEvent> eventType() {
+        return DomainEvent.class;
+    }
+
+    // badge counts change with the awarded and revoked badges
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            switch (event) {
+                case BadgeAwarded e -> invalidate(e.userId());
+                case BadgeRevoked e -> invalidate(e.userId());
+                default -> {
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.reddot.app.service.user;
+
+import com.reddot.app.entity.Role;
+import com.reddot.app.entity.User;
+import com.reddot.app.entity.enumeration.ROLENAME;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The fields of a user that authenticated requests need, without the password hash and the associations.
+ *
+ * @param roles the role names of the user with their ids
+ */
+public record CachedPrincipal(Integer id, String email, String username, boolean enabled, Map<ROLENAME, Integer> roles) {
+
+    public CachedPrincipal {
+        roles = Map.copyOf(roles);
+    }
+
+    /**
+     * A detached {@link User} holding only these fields, used as the principal of the request.
+     * Its associations other than the roles are empty.
+     */
+    public User toUser() {
+        User user = new User();
+        user.setId(id);
+        user.setNew(false);
+        user.setEmail(email);
+        user.setUsername(username);
+        user.setEnabled(enabled);
+        Set<Role> userRoles = new HashSet<>();
+        roles.forEach((name, roleId) -> {
+            Role role = new Role(name);
+            role.setId(roleId);
+            role.setNew(false);
+            userRoles.add(role);
+        });
+        user.setRoles(userRoles);
+        return user;
+    }
+}
@@ -0,0 +1,69 @@
+package com.reddot.app.service.user;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer for {@code users.last_access}.
+ * <p>
+ * Every authenticated request and every login records the time its user was last seen in memory
+ * ({@link #touch(Integer)}). Every {@code reddot.users.last-access.flush-interval} the users seen since the last
+ * flush are written in one JDBC batch. A user active on many requests is written once per flush, and presence
+ * lags by one interval.
+ * <p>
+ * The column is only written here, {@code User.lastAccess} is not updatable through the entity.
+ * Pending times are flushed on shutdown.
+ */
+@Slf4j
+@Component
+public class LastAccessWriter {
+    private static final String UPDATE_LAST_ACCESS = "UPDATE users SET last_access = GREATEST(COALESCE(last_access, ?), ?) " +
+                                                     "WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    // user id -> last seen, epoch millis
+    private final ConcurrentHashMap<Integer, Long> lastSeen = new ConcurrentHashMap<>();
+
+    public LastAccessWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void touch(Integer userId) {
+        lastSeen.merge(userId, System.currentTimeMillis(), Math::max);
+    }
+
+    @Scheduled(fixedDelayString = "${reddot.users.last-access.flush-interval:PT30S}")
+    public synchronized void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        for (Map.Entry<Integer, Long> entry : lastSeen.entrySet()) {
+            // a request seen after the read stays for the next flush
+            if (lastSeen.remove(entry.getKey(), entry.getValue())) {
+                Timestamp seenAt = new Timestamp(entry.getValue());
+                batch.add(new Object[]{seenAt, seenAt, entry.getKey()});
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_LAST_ACCESS, batch);
+        } catch (Exception e) {
+            log.error("LAST ACCESS FLUSH FAILED - {} users, retrying on next flush", batch.size(), e);
+            batch.forEach(row -> lastSeen.merge((Integer) row[2], ((Timestamp) row[0]).getTime(), Math::max));
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+}
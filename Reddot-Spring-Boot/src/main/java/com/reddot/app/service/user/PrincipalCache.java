@@ -0,0 +1,75 @@
+package com.reddot.app.service.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.reddot.app.entity.enumeration.ROLENAME;
+import com.reddot.app.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded cache of the {@link CachedPrincipal} of users, by the user id of their tokens.
+ * <p>
+ * A miss reads the principal with one query on the user and its roles instead of loading the entity with its
+ * eager associations. Entries are evicted by the writes that change them ({@link #evict(Integer)}): password reset,
+ * email change, account confirmation and deletion, and role changes. They expire after
+ * {@code reddot.cache.principals.ttl}, which bounds how long a write made elsewhere goes unnoticed.
+ */
+@Component
+public class PrincipalCache {
+    private final UserRepository userRepository;
+    private final Cache<Integer, CachedPrincipal> principals;
+
+    public PrincipalCache(UserRepository userRepository,
+                          @Value("${reddot.cache.principals.max-entries:10000}") long maxEntries,
+                          @Value("${reddot.cache.principals.ttl:5m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.principals = Caffeine.newBuilder().maximumSize(maxEntries).expireAfterWrite(ttl).build();
+    }
+
+    /**
+     * @return the principal of the user, null if the user does not exist
+     */
+    public CachedPrincipal get(Integer userId) {
+        // null values are not cached
+        return principals.get(userId, this::load);
+    }
+
+    private CachedPrincipal load(Integer userId) {
+        List<Object[]> rows = userRepository.findPrincipalRowsById(userId);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Map<ROLENAME, Integer> roles = new EnumMap<>(ROLENAME.class);
+        for (Object[] row : rows) {
+            if (row[4] != null) {
+                roles.put((ROLENAME) row[4], (Integer) row[5]);
+            }
+        }
+        Object[] first = rows.getFirst();
+        return new CachedPrincipal((Integer) first[0], (String) first[1], (String) first[2], (Boolean) first[3], roles);
+    }
+
+    /**
+     * Drop the principal now and again once the current transaction commits,
+     * so a request racing with the write cannot cache the old row.
+     */
+    public void evict(Integer userId) {
+        principals.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    principals.invalidate(userId);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.reddot.app.service.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.reddot.app.exception.ResourceNotFoundException;
+import com.reddot.app.repository.UserProfileView;
+import com.reddot.app.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Bounded cache of the public profiles of users, by id, with the ids of usernames next to it.
+ * <p>
+ * Entries are read-only {@link UserProfileView} projections and are evicted by the writes that change them
+ * ({@link #evict(Integer)}), then expire after {@code reddot.cache.profiles.ttl} as a safety net for writes
+ * made elsewhere. Usernames never change, so the username index is only bounded, never evicted.
+ */
+@Component
+public class UserProfileCache {
+    private final UserRepository userRepository;
+    private final Cache<Integer, UserProfileView> byId;
+    private final Cache<String, Integer> idsByUsername;
+
+    public UserProfileCache(UserRepository userRepository,
+                            @Value("${reddot.cache.profiles.max-entries:10000}") long maxEntries,
+                            @Value("${reddot.cache.profiles.ttl:10m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.byId = Caffeine.newBuilder().maximumSize(maxEntries).expireAfterWrite(ttl).build();
+        this.idsByUsername = Caffeine.newBuilder().maximumSize(maxEntries).build();
+    }
+
+    /**
+     * @throws ResourceNotFoundException if the user does not exist
+     */
+    public UserProfileView get(Integer userId) {
+        UserProfileView view = lookup(userId);
+        if (view == null) {
+            throw new ResourceNotFoundException("User with id `" + userId + "` not found");
+        }
+        return view;
+    }
+
+    /**
+     * @throws ResourceNotFoundException if the user does not exist
+     */
+    public UserProfileView getByUsername(String username) {
+        Integer userId = idsByUsername.getIfPresent(username);
+        if (userId != null) {
+            UserProfileView view = lookup(userId);
+            // the user may have been deleted and the username taken again
+            if (view != null && view.username().equals(username)) {
+                return view;
+            }
+            idsByUsername.invalidate(username);
+        }
+        UserProfileView view = userRepository.findProfileByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User with username `" + username + "` not found"));
+        idsByUsername.put(username, view.userId());
+        byId.put(view.userId(), view);
+        return view;
+    }
+
+    // null values are not cached
+    private UserProfileView lookup(Integer userId) {
+        return byId.get(userId, id -> userRepository.findProfileById(id).orElse(null));
+    }
+
+    /**
+     * Drop the profile now and again once the current transaction commits,
+     * so a read racing with the write cannot cache the old row.
+     */
+    public void evict(Integer userId) {
+        byId.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    byId.invalidate(userId);
+                }
+            });
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.reddot.app.service.user;
 import com.reddot.app.dto.request.ProfileUpdateRequest;
 import com.reddot.app.dto.request.RegisterRequest;
 import com.reddot.app.dto.request.UpdatePasswordRequest;
+import com.reddot.app.dto.response.ShallowUserDTO;
 import com.reddot.app.dto.response.UserProfileDTO;
 import com.reddot.app.entity.User;
 import com.reddot.app.exception.BadRequestException;
@@ -14,6 +15,8 @@ import lombok.NonNull;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
  * Service for managing user operations.
  */
@@ -40,7 +43,12 @@ public interface UserServiceManager extends UserDetailsService {
      */
     void userDeleteRequest(Integer userId) throws ResourceNotFoundException;
 
-    void userOnLoginUpdate(@NonNull String email);
+    /**
+     * Records the login of the user and cancels its pending delete request.
+     *
+     * @param userId the id of the user.
+     */
+    void userOnLoginUpdate(@NonNull Integer userId);
 
     /**
      * Gets the user identified by the given id.
@@ -58,6 +66,14 @@ public interface UserServiceManager extends UserDetailsService {
      */
     UserProfileDTO profileGetByUsername(String username);
 
+    /**
+     * Gets the author cards of the given users, in the order of the ids. Unknown ids are skipped.
+     *
+     * @param userIds the ids of the users.
+     * @return list of ShallowUserDTO objects.
+     */
+    List<ShallowUserDTO> cardGetByIds(List<Integer> userIds);
+
     /**
      * Updates the user profile.
      *
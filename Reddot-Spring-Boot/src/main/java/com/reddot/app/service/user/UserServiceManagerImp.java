@@ -4,6 +4,7 @@ import com.reddot.app.assembler.UserAssembler;
 import com.reddot.app.dto.request.ProfileUpdateRequest;
 import com.reddot.app.dto.request.RegisterRequest;
 import com.reddot.app.dto.request.UpdatePasswordRequest;
+import com.reddot.app.dto.response.ShallowUserDTO;
 import com.reddot.app.dto.response.UserProfileDTO;
 import com.reddot.app.entity.*;
 import com.reddot.app.entity.enumeration.MembershipRank;
@@ -11,13 +12,18 @@ import com.reddot.app.entity.enumeration.ROLENAME;
 import com.reddot.app.exception.BadRequestException;
 import com.reddot.app.exception.EmailNotFoundException;
 import com.reddot.app.exception.ResourceNotFoundException;
+import com.reddot.app.exception.ServiceUnavailableException;
 import com.reddot.app.exception.UserNotFoundException;
 import com.reddot.app.repository.*;
+import com.reddot.app.service.auth.TokenRevocationService;
+import com.reddot.app.service.email.MailLinks;
 import com.reddot.app.service.email.MailSenderManager;
+import com.reddot.app.service.event.DomainEventBus;
+import com.reddot.app.service.event.UserRegistered;
+import com.reddot.app.service.system.ReferenceDataRegistry;
 import jakarta.validation.Valid;
 import lombok.NonNull;
 import lombok.extern.log4j.Log4j2;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -29,6 +35,8 @@ import org.springframework.util.Assert;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Log4j2
@@ -38,27 +46,44 @@ public class UserServiceManagerImp implements UserServiceManager {
     private final MailSenderManager mailSenderManager;
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final DomainEventBus domainEventBus;
+    private final UserStatsService userStatsService;
+    private final UserProfileCache userProfileCache;
+    private final AuthorCardCache authorCardCache;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationService tokenRevocationService;
+    private final LastAccessWriter lastAccessWriter;
     private final PersonRepository personRepository;
     private final RecoveryTokenRepository recoveryTokenRepository;
     private final ConfirmationTokenRepository confirmationTokenRepository;
     private final userDeleteRepository userDeleteRepository;
-    private final String fullUrl;
+    private final MailLinks mailLinks;
     private final UserAssembler userAssembler;
 
-    public UserServiceManagerImp(@Value("${server.address}") String appDomain,
-                                 @Value("${server.port}") String appPort,
-                                 @Value("${server.servlet.context-path}") String appPath,
-                                 MailSenderManager mailSenderManager, UserRepository userRepository, RoleRepository roleRepository,
+    public UserServiceManagerImp(MailLinks mailLinks, MailSenderManager mailSenderManager, UserRepository userRepository, RoleRepository roleRepository,
                                  PasswordEncoder encoder, RecoveryTokenRepository recoveryTokenRepository,
                                  ConfirmationTokenRepository confirmationTokenRepository, PersonRepository personRepository,
-                                 userDeleteRepository userDeleteRepository, UserAssembler userAssembler) {
+                                 userDeleteRepository userDeleteRepository, UserAssembler userAssembler,
+                                 ReferenceDataRegistry referenceDataRegistry, DomainEventBus domainEventBus,
+                                 UserStatsService userStatsService, UserProfileCache userProfileCache,
+                                 AuthorCardCache authorCardCache, PrincipalCache principalCache,
+                                 TokenRevocationService tokenRevocationService, LastAccessWriter lastAccessWriter) {
         this.mailSenderManager = mailSenderManager;
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
+        this.referenceDataRegistry = referenceDataRegistry;
+        this.domainEventBus = domainEventBus;
+        this.userStatsService = userStatsService;
+        this.userProfileCache = userProfileCache;
+        this.authorCardCache = authorCardCache;
+        this.principalCache = principalCache;
+        this.tokenRevocationService = tokenRevocationService;
+        this.lastAccessWriter = lastAccessWriter;
         this.encoder = encoder;
         this.recoveryTokenRepository = recoveryTokenRepository;
         this.confirmationTokenRepository = confirmationTokenRepository;
-        this.fullUrl = "http://" + appDomain + ":" + appPort + appPath;
+        this.mailLinks = mailLinks;
         this.personRepository = personRepository;
         this.userDeleteRepository = userDeleteRepository;
         this.userAssembler = userAssembler;
@@ -72,8 +97,9 @@ public class UserServiceManagerImp implements UserServiceManager {
      */
     @Override
     public UserDetails loadUserByUsername(String param) throws UsernameNotFoundException {
-        return userRepository.findByUsernameOrEmail(param, param)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with username or email: " + param));
+        // usernames cannot contain '@': one lookup on the right unique index, usernames through the natural-id cache
+        Optional<User> user = param.indexOf('@') >= 0 ? userRepository.findByEmail(param) : userRepository.findByUsername(param);
+        return user.orElseThrow(() -> new UsernameNotFoundException("User not found with username or email: " + param));
     }
 
     @Override
@@ -110,64 +136,15 @@ public class UserServiceManagerImp implements UserServiceManager {
             user.setMembership(membership);
             userRepository.save(user);
 
-            // Send confirmation email
             Assert.notNull(user.getId(), "User id must not be null");
             ConfirmationToken token = new ConfirmationToken(user.getId());
-
-            // Construct the email subject and body in HTML
-            String subject = "Reddot Account Confirmation";
-            String body = String.format(
-                    """
-                            <html>
-                                     <body style="font-family: 'Segoe UI', Arial, sans-serif; margin: 0; padding: 0; background-color: #f4f6f8;">
-                                         <div style="max-width: 600px; margin: 40px auto; background: #ffffff; padding: 40px; border-radius: 12px; box-shadow: 0 4px 6px rgba(0, 0, 0, 0.1);">
-                                             <div style="text-align: center; margin-bottom: 30px;">
-                                                 <img src="https://www.reddotcorp.com/uploads/1/2/7/5/12752286/reddotlogo.png" alt="Reddot Logo" style="max-width: 200px; height: auto;" />
-                                             </div>
-                            
-                                             <h2 style="text-align: center; color: #2E7D32; margin: 0 0 30px 0; font-size: 28px; font-weight: 600;">
-                                                 Welcome to Reddot, %s!
-                                             </h2>
-                            
-                                             <p style="color: #333333; font-size: 16px; line-height: 1.6; margin-bottom: 25px;">
-                                                 Thank you for signing up. To get started with your Reddot journey, please confirm your account by clicking the button below:
-                                             </p>
-                            
-                                             <div style="text-align: center; margin: 35px 0;">
-                                                 <a href="%s/auth/confirm-account?token=%s"
-                                                    style="display: inline-block;
-                                                           padding: 14px 32px;
-                                                           background-color: #2E7D32;
-                                                           color: white;
-                                                           text-decoration: none;
-                                                           border-radius: 6px;
-                                                           font-weight: 600;
-                                                           font-size: 16px;
-                                                           transition: background-color 0.3s ease;
-                                                           box-shadow: 0 2px 4px rgba(0, 0, 0, 0.1);">
-                                                     Confirm Your Account
-                                                 </a>
-                                             </div>
-                            
-                                             <p style="color: #666666; font-size: 14px; line-height: 1.5; margin: 25px 0; text-align: center;">
-                                                 If you did not create an account with Reddot, please disregard this email.
-                                             </p>
-                            
-                                             <hr style="border: none; border-top: 1px solid #e0e0e0; margin: 30px 0;">
-                            
-                                             <div style="text-align: center;">
-                                                 <p style="color: #2E7D32; font-weight: 600; margin: 0;">Best Regards,</p>
-                                                 <p style="color: #666666; margin: 5px 0;">The Reddot Team</p>
-                                             </div>
-                                         </div>
-                                     </body>
-                                     </html>
-                            """,
-                    user.getUsername(), fullUrl, token.getToken());
-            mailSenderManager.sendEmail(user.getEmail(), subject, body);
-
-            // Save confirmation token
             confirmationTokenRepository.save(token);
+
+            // the confirmation email is sent by AccountConfirmationMailer
+            domainEventBus.publish(new UserRegistered(user.getId(), user.getUsername(), user.getEmail(), token.getToken()));
+        } catch (ServiceUnavailableException e) {
+            // password hashing is saturated, answered with 503
+            throw e;
         } catch (Exception e) {
             e.printStackTrace();
             throw new RuntimeException(e);
@@ -190,6 +167,9 @@ public class UserServiceManagerImp implements UserServiceManager {
             Person person = new Person(user.getUsername());
             user.setPerson(person);
             userRepository.save(user);
+            userProfileCache.evict(user.getId());
+            authorCardCache.evict(user.getId());
+            principalCache.evict(user.getId());
 
             // update confirm token
             confirmationToken.setConfirmedAt(LocalDateTime.now());
@@ -236,21 +216,11 @@ public class UserServiceManagerImp implements UserServiceManager {
 
     @Transactional
     @Override
-    public void userOnLoginUpdate(@NonNull String email) {
-        try {
-            User user = getUserByEmail(email);
-            user.setLastAccess(LocalDateTime.now());
-            userRepository.save(user);
-
-            // remove delete request queue if exists
-            if (userDeleteRepository.existsByUserId(user.getId())) {
-                userDeleteRepository.removeByUserId(user.getId());
-            }
-        } catch (ResourceNotFoundException e) {
-            throw new ResourceNotFoundException(e.getMessage());
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+    public void userOnLoginUpdate(@NonNull Integer userId) {
+        // last access is written with the next flush
+        lastAccessWriter.touch(userId);
+        // the delete request is cancelled before the login returns, so a new request made right after it stands
+        userDeleteRepository.removeByUserIdIn(List.of(userId));
     }
 
     @Override
@@ -267,6 +237,8 @@ public class UserServiceManagerImp implements UserServiceManager {
             user.setEmail(newEmail);
             user.setEmailVerified(false);
             userRepository.save(user);
+            userProfileCache.evict(user.getId());
+            principalCache.evict(user.getId());
 
             // Send mail confirmation in HTML format
             ConfirmationToken confirmationToken = new ConfirmationToken(user.getId());
@@ -275,7 +247,7 @@ public class UserServiceManagerImp implements UserServiceManager {
                           "<body>" +
                           "<h2>Confirm your new email address</h2>" +
                           "<p>To confirm your new email, click the link below:</p>" +
-                          "<a href='" + fullUrl + "/settings/email/confirm?token=" + confirmationToken.getToken() + "' " +
+                          "<a href='" + mailLinks.withToken("/settings/email/confirm", confirmationToken.getToken()) + "' " +
                           "style=\"padding: 10px 20px; background-color: #4CAF50; color: white; text-decoration: none; border-radius: 5px;\">Confirm Email</a>"
                           +
                           "<br><br>" +
@@ -334,7 +306,7 @@ public class UserServiceManagerImp implements UserServiceManager {
                           "<body>" +
                           "<h2>Confirm your new email address</h2>" +
                           "<p>To confirm your new email, click the link below:</p>" +
-                          "<a href='" + fullUrl + "/settings/email/confirm?token=" + confirmationToken.getToken() + "' " +
+                          "<a href='" + mailLinks.withToken("/settings/email/confirm", confirmationToken.getToken()) + "' " +
                           "style=\"padding: 10px 20px; background-color: #4CAF50; color: white; text-decoration: none; border-radius: 5px;\">Confirm Email</a>"
                           +
                           "<br><br>" +
@@ -386,7 +358,7 @@ public class UserServiceManagerImp implements UserServiceManager {
                           "<body>" +
                           "<h2>Password Reset Request</h2>" +
                           "<p>To reset your password, click the link below:</p>" +
-                          "<a href='" + fullUrl + "/settings/reset-password?token=" + recoveryToken.getToken() + "' " +
+                          "<a href='" + mailLinks.withToken("/settings/reset-password", recoveryToken.getToken()) + "' " +
                           "style=\"padding: 10px 20px; background-color: #4CAF50; color: white; text-decoration: none; border-radius: 5px;\">Reset Password</a>"
                           +
                           "<br><br>" +
@@ -427,6 +399,9 @@ public class UserServiceManagerImp implements UserServiceManager {
             }
             user.setPassword(encoder.encode(request.getPassword()));
             userRepository.save(user);
+            principalCache.evict(user.getId());
+            // sign out every session opened with the old password
+            tokenRevocationService.revokeAll(user.getId());
             recoveryToken.setUsed(true);
             recoveryTokenRepository.save(recoveryToken);
 
@@ -447,6 +422,9 @@ public class UserServiceManagerImp implements UserServiceManager {
         } catch (ResourceNotFoundException | BadRequestException e) {
             log.error(e.getMessage());
             throw e;
+        } catch (ServiceUnavailableException e) {
+            // password hashing is saturated, answered with 503
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -455,8 +433,19 @@ public class UserServiceManagerImp implements UserServiceManager {
     @Override
     public UserProfileDTO profileGetById(Integer userId) {
         try {
-            User user = getUserById(userId);
-            return getUserProfileDTO(user);
+            return toProfileDTO(userProfileCache.get(userId));
+        } catch (ResourceNotFoundException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public List<ShallowUserDTO> cardGetByIds(List<Integer> userIds) {
+        try {
+            Map<Integer, ShallowUserDTO> cards = authorCardCache.getAll(userIds);
+            return userIds.stream().distinct().map(cards::get).filter(Objects::nonNull).toList();
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -465,8 +454,9 @@ public class UserServiceManagerImp implements UserServiceManager {
     @Override
     public UserProfileDTO profileGetByUsername(String username) {
         try {
-            User user = getUserByUsername(username);
-            return getUserProfileDTO(user);
+            return toProfileDTO(userProfileCache.getByUsername(username));
+        } catch (ResourceNotFoundException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -482,6 +472,8 @@ public class UserServiceManagerImp implements UserServiceManager {
             // Update person from DTO
             updateRequest.updateProfile(user, person);
             userRepository.save(user);
+            userProfileCache.evict(user.getId());
+            authorCardCache.evict(user.getId());
             log.info("User profile updated successfully");
 
             return userAssembler.toUserProfileDTO(user, person);
@@ -490,19 +482,11 @@ public class UserServiceManagerImp implements UserServiceManager {
         }
     }
 
-    private UserProfileDTO getUserProfileDTO(User user) {
-        Optional<Person> p = personRepository.findByUserId(user.getId());
-        Person person;
-
-        if (p.isPresent()) {
-            person = p.get();
-        } else {
-            person = new Person(user.getUsername());
-            user.setPerson(person);
-            userRepository.save(user);
-        }
-
-        return userAssembler.toUserProfileDTO(user, person);
+    // the cached projection plus the counters, two primary-key lookups at most and no write
+    private UserProfileDTO toProfileDTO(UserProfileView view) {
+        UserProfileDTO dto = userAssembler.toUserProfileDTO(view);
+        dto.setStats(userStatsService.getStats(view.userId()));
+        return dto;
     }
 
     private boolean userExistsByEmail(String email) {
@@ -522,8 +506,9 @@ public class UserServiceManagerImp implements UserServiceManager {
         return userRepository.findByEmail(email).orElseThrow(UserNotFoundException::new);
     }
 
+    // a reference by the registered id, the role row itself comes from the second-level cache if ever read
     private Role findRoleByName(ROLENAME roleName) {
-        return roleRepository.findByName(roleName).orElse(null);
+        return roleRepository.getReferenceById(referenceDataRegistry.roleId(roleName));
     }
 
     private List<String> validateUser(RegisterRequest user) {
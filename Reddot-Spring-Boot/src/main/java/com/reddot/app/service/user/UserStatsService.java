@@ -0,0 +1,174 @@
+package com.reddot.app.service.user;
+
+import com.reddot.app.dto.response.UserStatsDTO;
+import com.reddot.app.entity.enumeration.VOTETYPE;
+import com.reddot.app.repository.UserStatsRepository;
+import com.reddot.app.service.system.ReferenceDataRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reads and recomputes the {@code user_stats} read model.
+ * <p>
+ * Profiles read the counters of a user with one primary-key lookup. The counters are kept current by
+ * {@link UserStatsUpdater}; {@link #rebuild()} recomputes every row from the source tables in chunks of
+ * {@code reddot.users.stats.chunk-size} users, once at startup if the table is empty and then every night,
+ * which also repairs an increment lost on shutdown.
+ * <p>
+ * The rebuild runs on its own thread. Each chunk is recounted with a plain, non-locking read, so writers of the
+ * source tables never wait on it, and the counts are written back only to the rows that were not updated since.
+ */
+@Slf4j
+@Service
+public class UserStatsService {
+    // consistent non-locking read of the recounts next to the stored row, null updated_at when there is no row
+    private static final String RECOUNT =
+            "SELECT u.id, " +
+            "(SELECT COUNT(*) FROM questions q WHERE q.user_id = u.id AND q.status = 'PUBLIC'), " +
+            "(SELECT COUNT(*) FROM comments c WHERE c.author_id = u.id AND c.status = 'PUBLIC'), " +
+            "(SELECT COUNT(*) FROM votes v JOIN questions q ON q.id = v.question_id " +
+            " WHERE q.user_id = u.id AND v.vote_type_id = ?), " +
+            "(SELECT COUNT(*) FROM votes v JOIN questions q ON q.id = v.question_id " +
+            " WHERE q.user_id = u.id AND v.vote_type_id = ?), " +
+            "(SELECT COUNT(*) FROM votes v JOIN comments c ON c.id = v.comment_id " +
+            " WHERE c.author_id = u.id AND v.vote_type_id = ?), " +
+            "(SELECT COUNT(*) FROM votes v JOIN comments c ON c.id = v.comment_id " +
+            " WHERE c.author_id = u.id AND v.vote_type_id = ?), " +
+            "(SELECT COUNT(*) FROM user_badges ub WHERE ub.user_id = u.id), " +
+            "(SELECT COUNT(*) FROM following f WHERE f.followed_id = u.id), " +
+            "s.user_id IS NOT NULL, s.updated_at " +
+            "FROM users u LEFT JOIN user_stats s ON s.user_id = u.id WHERE u.id > ? AND u.id <= ?";
+    // skipped if the row was updated since the recount, the next rebuild repairs it
+    private static final String OVERWRITE =
+            "UPDATE user_stats SET question_count = ?, answer_count = ?, question_upvotes = ?, question_downvotes = ?, " +
+            "answer_upvotes = ?, answer_downvotes = ?, badge_count = ?, follower_count = ?, updated_at = ? " +
+            "WHERE user_id = ? AND updated_at <=> ?";
+    private static final String CREATE =
+            "INSERT IGNORE INTO user_stats (question_count, answer_count, question_upvotes, question_downvotes, " +
+            "answer_upvotes, answer_downvotes, badge_count, follower_count, updated_at, user_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String CHUNK_END = "SELECT MAX(id) FROM (SELECT id FROM users WHERE id > ? ORDER BY id LIMIT ?) chunk";
+
+    private final UserStatsRepository userStatsRepository;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final JdbcTemplate jdbcTemplate;
+    private final int chunkSize;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final ExecutorService executor =
+            Executors.newSingleThreadExecutor(Thread.ofPlatform().name("user-stats-rebuild").factory());
+
+    public UserStatsService(UserStatsRepository userStatsRepository, ReferenceDataRegistry referenceDataRegistry,
+                            JdbcTemplate jdbcTemplate, @Value("${reddot.users.stats.chunk-size:500}") int chunkSize) {
+        this.userStatsRepository = userStatsRepository;
+        this.referenceDataRegistry = referenceDataRegistry;
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @return the counters of the user, all zero if the user has no row yet
+     */
+    public UserStatsDTO getStats(Integer userId) {
+        UserStatsDTO dto = new UserStatsDTO();
+        userStatsRepository.findById(userId).ifPresent(stats -> {
+            dto.setQuestionCount(stats.getQuestionCount());
+            dto.setAnswerCount(stats.getAnswerCount());
+            dto.setQuestionUpvotes(stats.getQuestionUpvotes());
+            dto.setQuestionDownvotes(stats.getQuestionDownvotes());
+            dto.setAnswerUpvotes(stats.getAnswerUpvotes());
+            dto.setAnswerDownvotes(stats.getAnswerDownvotes());
+            dto.setBadgeCount(stats.getBadgeCount());
+            dto.setFollowerCount(stats.getFollowerCount());
+        });
+        return dto;
+    }
+
+    // Run once at startup to fill the table the first time
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (userStatsRepository.count() == 0) {
+            rebuild();
+        }
+    }
+
+    // Run at 04:00 every day, after the vote counter reconciliation
+    @Scheduled(cron = "${reddot.users.stats.rebuild-cron:0 0 4 * * *}")
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(this::recountAll);
+        } catch (RejectedExecutionException e) {
+            // shutting down
+            rebuilding.set(false);
+        }
+    }
+
+    private void recountAll() {
+        try {
+            int up = referenceDataRegistry.voteTypeId(VOTETYPE.UPVOTE);
+            int down = referenceDataRegistry.voteTypeId(VOTETYPE.DOWNVOTE);
+            int lastId = 0;
+            int skipped = 0;
+            Integer chunkLastId;
+            while ((chunkLastId = jdbcTemplate.queryForObject(CHUNK_END, Integer.class, lastId, chunkSize)) != null) {
+                skipped += recount(up, down, lastId, chunkLastId);
+                lastId = chunkLastId;
+            }
+            log.info("USER STATS REBUILT - users up to id {}, {} rows updated during the rebuild skipped", lastId, skipped);
+        } catch (Exception e) {
+            log.error("USER STATS REBUILD FAILED", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * @return the number of rows left as they are because they were updated since the recount
+     */
+    private int recount(int up, int down, int from, int to) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> overwrites = new ArrayList<>();
+        List<Object[]> creates = new ArrayList<>();
+        jdbcTemplate.query(RECOUNT, rs -> {
+            Object[] row = new Object[]{rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getInt(5), rs.getInt(6),
+                    rs.getInt(7), rs.getInt(8), rs.getInt(9), now, rs.getInt(1), rs.getTimestamp(11)};
+            if (rs.getBoolean(10)) {
+                overwrites.add(row);
+            } else {
+                creates.add(Arrays.copyOf(row, 10));
+            }
+        }, up, down, up, down, from, to);
+        int skipped = 0;
+        if (!overwrites.isEmpty()) {
+            for (int updated : jdbcTemplate.batchUpdate(OVERWRITE, overwrites)) {
+                skipped += updated == 0 ? 1 : 0;
+            }
+        }
+        if (!creates.isEmpty()) {
+            jdbcTemplate.batchUpdate(CREATE, creates);
+        }
+        return skipped;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
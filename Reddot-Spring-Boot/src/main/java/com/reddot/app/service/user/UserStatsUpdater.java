@@ -0,0 +1,124 @@
+package com.reddot.app.service.user;
+
+import com.reddot.app.repository.CommentRepository;
+import com.reddot.app.repository.QuestionRepository;
+import com.reddot.app.service.event.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.*;
+
+/**
+ * Applies committed domain events to the {@code user_stats} read model.
+ * <p>
+ * The counter changes of a batch are summed per user and written with one JDBC batch of relative updates.
+ * Vote events resolve the authors of the voted posts with one query per post type.
+ * A user without a row yet gets one seeded with the deltas of the batch, registered users with zeros. Recounting
+ * them instead would include events still queued for later batches and apply those twice; a row seeded for a user
+ * with older activity is completed by the nightly {@link UserStatsService#rebuild()}.
+ */
+@Component
+public class UserStatsUpdater implements DomainEventListener<DomainEvent> {
+    private static final String UPSERT_STATS =
+            "INSERT INTO user_stats (question_count, answer_count, question_upvotes, question_downvotes, " +
+            "answer_upvotes, answer_downvotes, badge_count, follower_count, updated_at, user_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+            "question_count = question_count + VALUES(question_count), answer_count = answer_count + VALUES(answer_count), " +
+            "question_upvotes = question_upvotes + VALUES(question_upvotes), " +
+            "question_downvotes = question_downvotes + VALUES(question_downvotes), " +
+            "answer_upvotes = answer_upvotes + VALUES(answer_upvotes), " +
+            "answer_downvotes = answer_downvotes + VALUES(answer_downvotes), " +
+            "badge_count = badge_count + VALUES(badge_count), follower_count = follower_count + VALUES(follower_count), " +
+            "updated_at = VALUES(updated_at)";
+    private static final int QUESTIONS = 0, ANSWERS = 1, QUESTION_UPVOTES = 2, QUESTION_DOWNVOTES = 3,
+            ANSWER_UPVOTES = 4, ANSWER_DOWNVOTES = 5, BADGES = 6, FOLLOWERS = 7;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final QuestionRepository questionRepository;
+    private final CommentRepository commentRepository;
+
+    public UserStatsUpdater(JdbcTemplate jdbcTemplate, QuestionRepository questionRepository,
+                            CommentRepository commentRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.questionRepository = questionRepository;
+        this.commentRepository = commentRepository;
+    }
+
+    @Override
+    public Class<DomainEvent> eventType() {
+        return DomainEvent.class;
+    }
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        Map<Integer, int[]> deltas = new LinkedHashMap<>();
+        List<VoteCast> votes = new ArrayList<>();
+        for (DomainEvent event : events) {
+            switch (event) {
+                case QuestionCreated e -> add(deltas, e.authorId(), QUESTIONS, 1);
+                case QuestionDeleted e -> add(deltas, e.authorId(), QUESTIONS, -1);
+                case CommentAdded e -> add(deltas, e.authorId(), ANSWERS, 1);
+                case CommentDeleted e -> add(deltas, e.authorId(), ANSWERS, -1);
+                case BadgeAwarded e -> add(deltas, e.userId(), BADGES, 1);
+                case BadgeRevoked e -> add(deltas, e.userId(), BADGES, -1);
+                case UserFollowed e -> add(deltas, e.followedId(), FOLLOWERS, 1);
+                case UserUnfollowed e -> add(deltas, e.followedId(), FOLLOWERS, -1);
+                case VoteCast e -> votes.add(e);
+                case UserRegistered e -> add(deltas, e.userId(), QUESTIONS, 0);
+            }
+        }
+        addVotes(deltas, votes);
+
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> batch = new ArrayList<>();
+        deltas.forEach((userId, d) -> batch.add(new Object[]{d[QUESTIONS], d[ANSWERS], d[QUESTION_UPVOTES],
+                d[QUESTION_DOWNVOTES], d[ANSWER_UPVOTES], d[ANSWER_DOWNVOTES], d[BADGES], d[FOLLOWERS], now, userId}));
+        jdbcTemplate.batchUpdate(UPSERT_STATS, batch);
+    }
+
+    private void addVotes(Map<Integer, int[]> deltas, List<VoteCast> votes) {
+        if (votes.isEmpty()) {
+            return;
+        }
+        Set<Integer> questionIds = new HashSet<>();
+        Set<Integer> commentIds = new HashSet<>();
+        for (VoteCast vote : votes) {
+            if (vote.questionId() != null) {
+                questionIds.add(vote.questionId());
+            } else {
+                commentIds.add(vote.commentId());
+            }
+        }
+        Map<Integer, Integer> questionAuthors = questionIds.isEmpty() ? Map.of()
+                : toMap(questionRepository.findAuthorIdsByIds(questionIds));
+        Map<Integer, Integer> commentAuthors = commentIds.isEmpty() ? Map.of()
+                : toMap(commentRepository.findAuthorIdsByIds(commentIds));
+        for (VoteCast vote : votes) {
+            Integer authorId = vote.questionId() != null
+                    ? questionAuthors.get(vote.questionId())
+                    : commentAuthors.get(vote.commentId());
+            if (authorId == null) {
+                continue;
+            }
+            boolean question = vote.questionId() != null;
+            add(deltas, authorId, question ? QUESTION_UPVOTES : ANSWER_UPVOTES, vote.upDelta());
+            add(deltas, authorId, question ? QUESTION_DOWNVOTES : ANSWER_DOWNVOTES, vote.downDelta());
+        }
+    }
+
+    private static Map<Integer, Integer> toMap(List<Object[]> rows) {
+        Map<Integer, Integer> map = new HashMap<>();
+        rows.forEach(row -> map.put((Integer) row[0], (Integer) row[1]));
+        return map;
+    }
+
+    private static void add(Map<Integer, int[]> deltas, Integer userId, int counter, int delta) {
+        if (userId != null) {
+            deltas.computeIfAbsent(userId, id -> new int[8])[counter] += delta;
+        }
+    }
+}
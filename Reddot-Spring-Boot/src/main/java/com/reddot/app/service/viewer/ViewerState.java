@@ -0,0 +1,29 @@
+package com.reddot.app.service.viewer;
+
+import com.reddot.app.entity.enumeration.VOTETYPE;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * What one user has done to a set of posts, resolved in bulk by {@link ViewerStateService}.
+ *
+ * @param votes     post id to the direction of the user's vote, posts without a vote are absent
+ * @param bookmarks ids of the posts the user bookmarked
+ */
+public record ViewerState(Map<Integer, VOTETYPE> votes, Set<Integer> bookmarks) {
+
+    public static final ViewerState EMPTY = new ViewerState(Map.of(), Set.of());
+
+    public boolean isUpvoted(Integer id) {
+        return votes.get(id) == VOTETYPE.UPVOTE;
+    }
+
+    public boolean isDownvoted(Integer id) {
+        return votes.get(id) == VOTETYPE.DOWNVOTE;
+    }
+
+    public boolean isBookmarked(Integer id) {
+        return bookmarks.contains(id);
+    }
+}
@@ -0,0 +1,53 @@
+package com.reddot.app.service.viewer;
+
+import com.reddot.app.entity.enumeration.VOTETYPE;
+import com.reddot.app.repository.BookmarkRepository;
+import com.reddot.app.repository.VoteRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Resolves the user-specific flags of a list of posts (upvoted, downvoted, bookmarked)
+ * with one set-based query per kind of flag, whatever the size of the list.
+ */
+@Service
+@RequiredArgsConstructor
+public class ViewerStateService {
+    private final VoteRepository voteRepository;
+    private final BookmarkRepository bookmarkRepository;
+
+    /**
+     * @param userId      the viewer, null for anonymous requests
+     * @param questionIds the questions on the page
+     * @return the viewer state of the questions, at most two queries
+     */
+    public ViewerState forQuestions(Integer userId, Collection<Integer> questionIds) {
+        if (userId == null || questionIds.isEmpty()) {
+            return ViewerState.EMPTY;
+        }
+        Map<Integer, VOTETYPE> votes = new HashMap<>();
+        for (Object[] row : voteRepository.findQuestionVotesByUserId(userId, questionIds)) {
+            votes.put((Integer) row[0], (VOTETYPE) row[1]);
+        }
+        Set<Integer> bookmarks = new HashSet<>(bookmarkRepository.findBookmarkedQuestionIdsByUserId(userId, questionIds));
+        return new ViewerState(votes, bookmarks);
+    }
+
+    /**
+     * @param userId     the viewer, null for anonymous requests
+     * @param commentIds the comments on the page
+     * @return the votes of the viewer on the comments, comments cannot be bookmarked
+     */
+    public ViewerState forComments(Integer userId, Collection<Integer> commentIds) {
+        if (userId == null || commentIds.isEmpty()) {
+            return ViewerState.EMPTY;
+        }
+        Map<Integer, VOTETYPE> votes = new HashMap<>();
+        for (Object[] row : voteRepository.findCommentVotesByUserId(userId, commentIds)) {
+            votes.put((Integer) row[0], (VOTETYPE) row[1]);
+        }
+        return new ViewerState(votes, Set.of());
+    }
+}
@@ -0,0 +1,196 @@
+package com.reddot.app.service.vote;
+
+import com.reddot.app.service.cache.AnonymousResponseCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind buffer for the vote counters of questions.
+ * <p>
+ * Votes are inserted or deleted synchronously, but their effect on {@code questions.upvotes},
+ * {@code downvotes}, {@code score} and {@code last_activity_at} is accumulated here in striped
+ * {@link LongAdder}s once the vote commits, and written
+ * every {@value #FLUSH_INTERVAL_MS} ms in one JDBC batch, with one relative {@code UPDATE} per question.
+ * Concurrent voters of the same question therefore never wait on its row lock, and a viral question
+ * is written a few times per second at most.
+ * <p>
+ * Flushes run on a dedicated thread, so they are neither delayed by nor delaying the other scheduled jobs.
+ * The adders of a question are only added to and dropped under its map entry lock, so a vote is never
+ * added to adders that were just dropped.
+ * <p>
+ * Counters lag the votes table by one flush interval; {@link #counters} reads them as stored plus pending. Pending deltas are flushed on shutdown;
+ * a delta lost to a crash is repaired by {@link VoteCounterReconciler}.
+ */
+@Slf4j
+@Component
+public class VoteCounterBuffer {
+    static final long FLUSH_INTERVAL_MS = 250;
+    // flushes without any vote before the adders of a question are dropped, about 10 minutes
+    private static final int IDLE_FLUSHES = 2400;
+    private static final String UPDATE_COUNTERS = "UPDATE questions SET upvotes = upvotes + ?, downvotes = downvotes + ?, " +
+                                                  "score = score + ?, last_activity_at = GREATEST(COALESCE(last_activity_at, ?), ?) " +
+                                                  "WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AnonymousResponseCache anonymousResponseCache;
+    private final ConcurrentHashMap<Integer, Delta> deltas = new ConcurrentHashMap<>();
+    // odd while a flush moves deltas from the adders to the rows, bumped on both ends
+    private final AtomicLong flushes = new AtomicLong();
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("vote-counter-flush").factory());
+
+    public VoteCounterBuffer(JdbcTemplate jdbcTemplate, AnonymousResponseCache anonymousResponseCache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.anonymousResponseCache = anonymousResponseCache;
+    }
+
+    @PostConstruct
+    void start() {
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param upvotes   change of the upvote count, -1, 0 or 1
+     * @param downvotes change of the downvote count, -1, 0 or 1
+     */
+    public void add(Integer questionId, int upvotes, int downvotes) {
+        long votedAt = System.currentTimeMillis();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(questionId, upvotes, downvotes, votedAt);
+                }
+            });
+        } else {
+            apply(questionId, upvotes, downvotes, votedAt);
+        }
+    }
+
+    /**
+     * @return the committed deltas of the question that are not flushed yet: [upvotes, downvotes]
+     */
+    public long[] pending(Integer questionId) {
+        Delta delta = deltas.get(questionId);
+        return delta == null ? new long[]{0, 0} : new long[]{delta.upvotes.sum(), delta.downvotes.sum()};
+    }
+
+    /**
+     * Read the counters of a question as stored plus pending, retried until no flush ran in between: a flush resets
+     * the pending deltas before its update commits, so a read that overlaps it would miss the flushed delta.
+     * <p>
+     * {@code stored} must see the rows committed after it is called, so it cannot run in a transaction that
+     * already read them.
+     *
+     * @param stored reads the stored counters of the question: [upvotes, downvotes]
+     * @return [upvotes, downvotes] including the committed votes that are not flushed yet
+     */
+    public long[] counters(Integer questionId, Supplier<long[]> stored) {
+        while (true) {
+            long flush = flushes.get();
+            if ((flush & 1) == 0) {
+                long[] pending = pending(questionId);
+                long[] counters = stored.get();
+                if (flushes.get() == flush) {
+                    return new long[]{counters[0] + pending[0], counters[1] + pending[1]};
+                }
+            }
+            // a flush is writing, it lasts one batch update
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    private void apply(Integer questionId, long upvotes, long downvotes, long votedAt) {
+        deltas.compute(questionId, (id, delta) -> {
+            if (delta == null) {
+                delta = new Delta();
+            }
+            delta.upvotes.add(upvotes);
+            delta.downvotes.add(downvotes);
+            delta.lastVoteAt.accumulate(votedAt);
+            return delta;
+        });
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            // an exception would cancel the periodic flush
+            log.error("VOTE COUNTER FLUSH FAILED", e);
+        }
+    }
+
+    public synchronized void flush() {
+        flushes.incrementAndGet();
+        try {
+            write();
+        } finally {
+            flushes.incrementAndGet();
+        }
+    }
+
+    private void write() {
+        List<Object[]> batch = new ArrayList<>();
+        for (Map.Entry<Integer, Delta> entry : deltas.entrySet()) {
+            Delta delta = entry.getValue();
+            long up = delta.upvotes.sumThenReset();
+            long down = delta.downvotes.sumThenReset();
+            if (up == 0 && down == 0) {
+                if (++delta.idleFlushes >= IDLE_FLUSHES) {
+                    // dropped only if still idle, atomically with the votes added to it
+                    deltas.computeIfPresent(entry.getKey(), (id, d) ->
+                            d == delta && d.upvotes.sum() == 0 && d.downvotes.sum() == 0 ? null : d);
+                }
+                continue;
+            }
+            delta.idleFlushes = 0;
+            Timestamp votedAt = new Timestamp(delta.lastVoteAt.getThenReset());
+            batch.add(new Object[]{up, down, up * 3 - down, votedAt, votedAt, entry.getKey()});
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_COUNTERS, batch);
+            anonymousResponseCache.invalidate();
+        } catch (Exception e) {
+            log.error("VOTE COUNTER FLUSH FAILED - {} questions, retrying on next flush", batch.size(), e);
+            batch.forEach(row -> apply((Integer) row[5], (Long) row[0], (Long) row[1], ((Timestamp) row[3]).getTime()));
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+    }
+
+    private static final class Delta {
+        final LongAdder upvotes = new LongAdder();
+        final LongAdder downvotes = new LongAdder();
+        final LongAccumulator lastVoteAt = new LongAccumulator(Math::max, 0);
+        // only touched by the flushing thread
+        int idleFlushes;
+    }
+}
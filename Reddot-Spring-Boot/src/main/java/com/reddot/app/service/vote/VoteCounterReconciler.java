@@ -0,0 +1,276 @@
+package com.reddot.app.service.vote;
+
+import com.reddot.app.entity.enumeration.VOTETYPE;
+import com.reddot.app.service.cache.AnonymousResponseCache;
+import com.reddot.app.service.ranking.HotRankingService;
+import com.reddot.app.service.system.ReferenceDataRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recounts the votes of every question and comment and repairs the stored counters that drifted.
+ * <p>
+ * Posts are walked by id in keyset-ordered chunks of {@code reddot.votes.reconcile.chunk-size}. For each chunk
+ * one statement reads the stored counters next to the votes grouped by post, so both sides come from the same
+ * snapshot, and the drifted rows are fixed with one JDBC batch of relative {@code UPDATE}s. Memory is bounded
+ * by the chunk size, every statement commits on its own and chunks are paced by {@code reddot.votes.reconcile.pause},
+ * so the job can run under live traffic.
+ * <p>
+ * Question counters are written behind by {@link VoteCounterBuffer}: their unflushed deltas are counted as stored,
+ * and a drift is only repaired if it is seen again, unchanged, after flushing the buffer from this thread.
+ * Relative updates commute with concurrent votes, so a repair never overwrites a vote cast in between.
+ * <p>
+ * The scheduled trigger only hands the run to a dedicated thread, so the shared scheduler threads keep running
+ * the short periodic jobs during the whole reconciliation.
+ * <p>
+ * Progress and results are published as {@code reddot.votes.reconcile.*} actuator metrics.
+ */
+@Slf4j
+@Component
+public class VoteCounterReconciler {
+    private static final String CHUNK_END = "SELECT MAX(id) FROM (SELECT id FROM %1$s WHERE id > ? ORDER BY id LIMIT ?) chunk";
+    private static final String CHUNK_COUNTERS =
+            "SELECT p.id, p.upvotes, p.downvotes, %3$s, COALESCE(v.up, 0), COALESCE(v.down, 0) FROM %1$s p " +
+            "LEFT JOIN (SELECT %2$s AS post_id, SUM(vote_type_id = ?) AS up, SUM(vote_type_id = ?) AS down FROM votes " +
+            "WHERE %2$s > ? AND %2$s <= ? GROUP BY %2$s) v ON v.post_id = p.id " +
+            "WHERE p.id > ? AND p.id <= ?";
+    private static final String RECHECK_COUNTERS =
+            "SELECT p.id, p.upvotes, p.downvotes, %3$s, " +
+            "(SELECT COUNT(*) FROM votes v WHERE v.%2$s = p.id AND v.vote_type_id = ?), " +
+            "(SELECT COUNT(*) FROM votes v WHERE v.%2$s = p.id AND v.vote_type_id = ?) FROM %1$s p WHERE p.id = ?";
+    private static final String REPAIR_QUESTION = "UPDATE questions SET upvotes = upvotes + ?, downvotes = downvotes + ?, " +
+                                                  "score = score + ? WHERE id = ?";
+    private static final String REPAIR_COMMENT = "UPDATE comments SET upvotes = upvotes + ?, downvotes = downvotes + ? " +
+                                                 "WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final VoteCounterBuffer voteCounterBuffer;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final HotRankingService hotRankingService;
+    private final AnonymousResponseCache anonymousResponseCache;
+    private final int chunkSize;
+    private final Duration pause;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Map<Target, AtomicLong> lastScannedIds = new HashMap<>();
+    private final Map<Target, Counter> scanned = new HashMap<>();
+    private final Map<Target, Counter> repaired = new HashMap<>();
+    private final Map<Target, Counter> drift = new HashMap<>();
+    private final Timer duration;
+    private final ExecutorService executor =
+            Executors.newSingleThreadExecutor(Thread.ofPlatform().name("vote-reconciler").factory());
+
+    public VoteCounterReconciler(JdbcTemplate jdbcTemplate, VoteCounterBuffer voteCounterBuffer,
+                                 ReferenceDataRegistry referenceDataRegistry, HotRankingService hotRankingService,
+                                 AnonymousResponseCache anonymousResponseCache, MeterRegistry meterRegistry,
+                                 @Value("${reddot.votes.reconcile.chunk-size:1000}") int chunkSize,
+                                 @Value("${reddot.votes.reconcile.pause:50ms}") Duration pause) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.voteCounterBuffer = voteCounterBuffer;
+        this.referenceDataRegistry = referenceDataRegistry;
+        this.hotRankingService = hotRankingService;
+        this.anonymousResponseCache = anonymousResponseCache;
+        this.chunkSize = chunkSize;
+        this.pause = pause;
+        for (Target target : Target.values()) {
+            AtomicLong lastScannedId = new AtomicLong();
+            lastScannedIds.put(target, lastScannedId);
+            Gauge.builder("reddot.votes.reconcile.last.id", lastScannedId, AtomicLong::get)
+                    .description("Last post id checked by the running or last reconciliation")
+                    .tag("target", target.table).register(meterRegistry);
+            scanned.put(target, Counter.builder("reddot.votes.reconcile.scanned")
+                    .description("Posts checked").tag("target", target.table).register(meterRegistry));
+            repaired.put(target, Counter.builder("reddot.votes.reconcile.repaired")
+                    .description("Posts whose counters were repaired").tag("target", target.table).register(meterRegistry));
+            drift.put(target, Counter.builder("reddot.votes.reconcile.drift")
+                    .description("Absolute vote drift repaired").tag("target", target.table).register(meterRegistry));
+        }
+        Gauge.builder("reddot.votes.reconcile.running", running, r -> r.get() ? 1 : 0)
+                .description("1 while a reconciliation runs").register(meterRegistry);
+        this.duration = Timer.builder("reddot.votes.reconcile.duration")
+                .description("Duration of a full reconciliation").register(meterRegistry);
+    }
+
+    // Run at 03:30 every day, off peak
+    @Scheduled(cron = "${reddot.votes.reconcile.cron:0 30 3 * * *}")
+    public void schedule() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("VOTE COUNTER RECONCILIATION ALREADY RUNNING - skipped");
+            return;
+        }
+        try {
+            executor.execute(this::run);
+        } catch (RejectedExecutionException e) {
+            // shutting down
+            running.set(false);
+        }
+    }
+
+    private void run() {
+        try {
+            duration.record(() -> {
+                for (Target target : Target.values()) {
+                    reconcile(target);
+                }
+            });
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void reconcile(Target target) {
+        int upId = referenceDataRegistry.voteTypeId(VOTETYPE.UPVOTE);
+        int downId = referenceDataRegistry.voteTypeId(VOTETYPE.DOWNVOTE);
+        String chunkEnd = target.format(CHUNK_END);
+        String chunkCounters = target.format(CHUNK_COUNTERS);
+        AtomicLong lastScannedId = lastScannedIds.get(target);
+        lastScannedId.set(0);
+        long checked = 0;
+        long repairedPosts = 0;
+        int lastId = 0;
+        while (true) {
+            Integer chunkLastId = jdbcTemplate.queryForObject(chunkEnd, Integer.class, lastId, chunkSize);
+            if (chunkLastId == null) {
+                break;
+            }
+            List<Drift> drifts = new ArrayList<>();
+            int[] rows = {0};
+            jdbcTemplate.query(chunkCounters, rs -> {
+                rows[0]++;
+                Drift d = drift(target, rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getInt(5), rs.getInt(6));
+                if (d != null) {
+                    drifts.add(d);
+                }
+            }, upId, downId, lastId, chunkLastId, lastId, chunkLastId);
+            repairedPosts += repair(target, drifts, upId, downId);
+            scanned.get(target).increment(rows[0]);
+            checked += rows[0];
+            lastId = chunkLastId;
+            lastScannedId.set(lastId);
+            if (!sleep(pause)) {
+                break;
+            }
+        }
+        log.info("VOTE COUNTER RECONCILIATION - {}: {} checked up to id {}, {} repaired",
+                target.table, checked, lastId, repairedPosts);
+        if (repairedPosts > 0) {
+            anonymousResponseCache.invalidate();
+        }
+    }
+
+    /**
+     * Confirms the drifts of a chunk one post at a time and repairs them in one batch.
+     *
+     * @return the number of repaired posts
+     */
+    private int repair(Target target, List<Drift> drifts, int upId, int downId) {
+        if (drifts.isEmpty()) {
+            return 0;
+        }
+        if (target == Target.QUESTIONS) {
+            // the deltas pending at the first read are written before the recheck
+            voteCounterBuffer.flush();
+        }
+        String recheck = target.format(RECHECK_COUNTERS);
+        List<Object[]> batch = new ArrayList<>();
+        for (Drift first : drifts) {
+            Drift confirmed = jdbcTemplate.query(recheck, rs -> rs.next()
+                            ? drift(target, rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getInt(5), rs.getInt(6))
+                            : null,
+                    upId, downId, first.postId());
+            // a vote landed in between, the next run will see the post again
+            if (!first.equals(confirmed)) {
+                continue;
+            }
+            batch.add(target == Target.QUESTIONS
+                    ? new Object[]{confirmed.upvotes(), confirmed.downvotes(), confirmed.score(), confirmed.postId()}
+                    : new Object[]{confirmed.upvotes(), confirmed.downvotes(), confirmed.postId()});
+            drift.get(target).increment(Math.abs(confirmed.upvotes()) + Math.abs(confirmed.downvotes()));
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(target == Target.QUESTIONS ? REPAIR_QUESTION : REPAIR_COMMENT, batch);
+        if (target == Target.QUESTIONS) {
+            batch.forEach(row -> hotRankingService.onQuestionVoted((Integer) row[3], (Integer) row[2]));
+        }
+        repaired.get(target).increment(batch.size());
+        log.warn("VOTE COUNTER DRIFT REPAIRED - {}: {} rows", target.table, batch.size());
+        return batch.size();
+    }
+
+    /**
+     * @return the correction to add to the stored counters, null if they match the votes
+     */
+    private Drift drift(Target target, int postId, int upvotes, int downvotes, int score, int votedUp, int votedDown) {
+        if (target == Target.QUESTIONS) {
+            // deltas waiting in the buffer are already in the votes table
+            long[] pending = voteCounterBuffer.pending(postId);
+            upvotes += (int) pending[0];
+            downvotes += (int) pending[1];
+            score += (int) (pending[0] * 3 - pending[1]);
+        }
+        int upDrift = votedUp - upvotes;
+        int downDrift = votedDown - downvotes;
+        int scoreDrift = target == Target.QUESTIONS ? votedUp * 3 - votedDown - score : 0;
+        if (upDrift == 0 && downDrift == 0 && scoreDrift == 0) {
+            return null;
+        }
+        return new Drift(postId, upDrift, downDrift, scoreDrift);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static boolean sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private record Drift(int postId, int upvotes, int downvotes, int score) {
+    }
+
+    private enum Target {
+        QUESTIONS("questions", "question_id", "p.score"),
+        COMMENTS("comments", "comment_id", "0");
+
+        final String table;
+        final String voteColumn;
+        final String scoreColumn;
+
+        Target(String table, String voteColumn, String scoreColumn) {
+            this.table = table;
+            this.voteColumn = voteColumn;
+            this.scoreColumn = scoreColumn;
+        }
+
+        String format(String sql) {
+            return sql.formatted(table, voteColumn, scoreColumn);
+        }
+    }
+}
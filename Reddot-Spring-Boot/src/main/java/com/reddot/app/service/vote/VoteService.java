@@ -1,142 +1,220 @@
 package com.reddot.app.service.vote;
 
 import com.reddot.app.dto.request.VoteDto;
-import com.reddot.app.entity.Question;
-import com.reddot.app.entity.User;
-import com.reddot.app.entity.Vote;
-import com.reddot.app.entity.VoteType;
+import com.reddot.app.dto.response.VoteStateDTO;
 import com.reddot.app.entity.enumeration.VOTETYPE;
+import com.reddot.app.exception.BadRequestException;
+import com.reddot.app.exception.ResourceNotFoundException;
+import com.reddot.app.repository.CommentRepository;
 import com.reddot.app.repository.QuestionRepository;
-import com.reddot.app.repository.UserRepository;
 import com.reddot.app.repository.VoteRepository;
-import com.reddot.app.repository.VoteTypeRepository;
+import com.reddot.app.service.cache.AnonymousResponseCache;
+import com.reddot.app.service.event.DomainEventBus;
+import com.reddot.app.service.event.VoteCast;
+import com.reddot.app.service.ranking.HotRankingService;
+import com.reddot.app.service.system.ReferenceDataRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Optional;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
 
+@Slf4j
 @Service
 public class VoteService {
+    // attempts of a toggle that lost a deadlock or a lock wait
+    static final int MAX_ATTEMPTS = 3;
+
     private final VoteRepository voteRepository;
-    private final UserRepository userRepository;
     private final QuestionRepository questionRepository;
-    private final VoteTypeRepository voteTypeRepository;
+    private final CommentRepository commentRepository;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final HotRankingService hotRankingService;
+    private final AnonymousResponseCache anonymousResponseCache;
+    private final VoteCounterBuffer voteCounterBuffer;
+    private final DomainEventBus domainEventBus;
+    private final TransactionTemplate transactionTemplate;
 
-    public VoteService(VoteRepository voteRepository, UserRepository userRepository,
-                       QuestionRepository questionRepository, VoteTypeRepository voteTypeRepository) {
+    public VoteService(VoteRepository voteRepository, QuestionRepository questionRepository,
+                       CommentRepository commentRepository, ReferenceDataRegistry referenceDataRegistry, HotRankingService hotRankingService,
+                       AnonymousResponseCache anonymousResponseCache, VoteCounterBuffer voteCounterBuffer,
+                       DomainEventBus domainEventBus, TransactionTemplate transactionTemplate) {
         this.voteRepository = voteRepository;
-        this.userRepository = userRepository;
         this.questionRepository = questionRepository;
-        this.voteTypeRepository = voteTypeRepository;
+        this.commentRepository = commentRepository;
+        this.referenceDataRegistry = referenceDataRegistry;
+        this.hotRankingService = hotRankingService;
+        this.anonymousResponseCache = anonymousResponseCache;
+        this.voteCounterBuffer = voteCounterBuffer;
+        this.domainEventBus = domainEventBus;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // +1 on the counter of the given vote direction
+    private static int upvotes(VOTETYPE type) {
+        return type == VOTETYPE.UPVOTE ? 1 : 0;
+    }
+
+    private static int downvotes(VOTETYPE type) {
+        return type == VOTETYPE.DOWNVOTE ? 1 : 0;
+    }
+
+    private static VOTETYPE opposite(VOTETYPE type) {
+        return type == VOTETYPE.UPVOTE ? VOTETYPE.DOWNVOTE : VOTETYPE.UPVOTE;
+    }
+
+    /**
+     * Toggle the vote of a user on a question.
+     * <p>
+     * Voting the same direction twice removes the vote, voting the other direction switches it.
+     * See {@link #toggle} for how the toggle avoids loading any entity.
+     *
+     * @param userId the voter
+     * @return the direction of the vote after the toggle and the question counters
+     */
+    public VoteStateDTO voteQuestion(Integer questionId, VoteDto voteDto, Integer userId) {
+        VOTETYPE direction = parseVoteType(voteDto);
+        Toggle toggle = inTransactionWithRetry(() -> toggleQuestionVote(questionId, direction, userId));
+        // read once committed: the toggle is pending in the buffer, and the row is not read from the toggle's snapshot
+        long[] counters = voteCounterBuffer.counters(questionId, () -> {
+            Object[] row = questionRepository.findCountersById(questionId).getFirst();
+            return new long[]{((Number) row[0]).longValue(), ((Number) row[1]).longValue()};
+        });
+        return toggle.toState(questionId, (int) counters[0], (int) counters[1]);
+    }
+
+    private Toggle toggleQuestionVote(Integer questionId, VOTETYPE direction, Integer userId) {
+        int voteTypeId = referenceDataRegistry.voteTypeId(direction);
+        LocalDateTime now = LocalDateTime.now();
+
+        Toggle toggle = toggle(direction,
+                () -> voteRepository.deleteQuestionVote(userId, questionId, voteTypeId),
+                () -> voteRepository.insertQuestionVote(userId, questionId, voteTypeId, now),
+                () -> voteRepository.switchQuestionVote(userId, questionId, voteTypeId, now),
+                () -> questionRepository.existsById(questionId),
+                "Question with id `" + questionId + "` not found");
+        // counters and last activity are written behind, see VoteCounterBuffer
+        voteCounterBuffer.add(questionId, toggle.upDelta(), toggle.downDelta());
+        anonymousResponseCache.invalidate();
+        hotRankingService.onQuestionVoted(questionId, toggle.upDelta() * 3 - toggle.downDelta());
+        if (toggle.changed()) {
+            domainEventBus.publish(new VoteCast(userId, questionId, null, toggle.upDelta(), toggle.downDelta()));
+        }
+        return toggle;
+    }
+
+    /**
+     * Toggle the vote of a user on a comment, with the same semantics as {@link #voteQuestion}.
+     * <p>
+     * Unlike question counters, comment counters are updated in the same transaction with one relative
+     * {@code UPDATE}, which locks the comment row until commit; the counters read after it include the change.
+     *
+     * @param userId the voter
+     * @return the direction of the vote after the toggle and the comment counters
+     */
+    public VoteStateDTO voteComment(Integer commentId, VoteDto voteDto, Integer userId) {
+        VOTETYPE direction = parseVoteType(voteDto);
+        return inTransactionWithRetry(() -> toggleCommentVote(commentId, direction, userId));
     }
 
+    private VoteStateDTO toggleCommentVote(Integer commentId, VOTETYPE direction, Integer userId) {
+        int voteTypeId = referenceDataRegistry.voteTypeId(direction);
+        LocalDateTime now = LocalDateTime.now();
+
+        Toggle toggle = toggle(direction,
+                () -> voteRepository.deleteCommentVote(userId, commentId, voteTypeId),
+                () -> voteRepository.insertCommentVote(userId, commentId, voteTypeId, now),
+                () -> voteRepository.switchCommentVote(userId, commentId, voteTypeId, now),
+                () -> commentRepository.existsById(commentId),
+                "Comment with id `" + commentId + "` not found");
+        if (toggle.changed()) {
+            commentRepository.addVoteCounts(commentId, toggle.upDelta(), toggle.downDelta());
+            anonymousResponseCache.invalidate();
+            domainEventBus.publish(new VoteCast(userId, null, commentId, toggle.upDelta(), toggle.downDelta()));
+        }
+
+        Object[] counters = commentRepository.findCountersById(commentId).getFirst();
+        return toggle.toState(commentId, ((Number) counters[0]).intValue(), ((Number) counters[1]).intValue());
+    }
 
-    //toggle vote
-//       @Transactional
-//        public void toggleVote(Integer questionId, String voteTypeName, String username) {
-//           User user = userRepository.findByUsername(username)
-//                   .orElseThrow(() -> new RuntimeException("User not found"));
-//
-//           Question question = questionRepository.findById(questionId)
-//                   .orElseThrow(() -> new RuntimeException("Question not found"));
-//           VoteDto voteDto = null;
-//           if (voteDto == null || voteDto.getVoteType() == null || username == null) {
-//               throw new IllegalArgumentException("Vote type or username cannot be null");
-//           }
-//           // Lấy loại vote từ enum (UPVOTE/DOWNVOTE)
-//           VOTETYPE voteTypeEnum = VOTETYPE.valueOf(voteTypeName);
-//           Optional<VoteType> optionalVoteType = voteTypeRepository.findByType(voteTypeEnum);
-//
-//           Vote vote = new Vote() ;
-//           if (optionalVoteType.isPresent()) {
-//               vote.setVoteType(optionalVoteType.get());
-//           } else {
-//               throw new RuntimeException("VoteType not found");
-//           }
-//
-//           // Kiểm tra vote hiện tại của người dùng
-//           Optional<Vote> existingVote = voteRepository.findByUserAndQuestion(user, question);
-//
-//           VoteType voteType = new VoteType();
-//           if (existingVote.isPresent()) {
-//               vote = existingVote.get();
-//               if (vote.getVoteType().getType() == voteTypeEnum) {
-//                   // Nếu đã vote cùng loại → Xóa vote
-//                   voteRepository.delete(vote);
-//               } else {
-//                   // Nếu vote khác loại → Cập nhật vote
-//                   vote.setVoteType(voteType);
-//                   voteRepository.save(vote);
-//               }
-//           } else {
-//               // Chưa vote → Thêm mới vote
-//               Vote newVote = new Vote(user, question, voteType);
-//               voteRepository.save(newVote);
-//           }
-//       }
-//    @Transactional
-//    public void voteQuestion(Integer questionId, VoteDto voteDto, String username) {
-//        // 1. Lấy thông tin người dùng từ username
-//        User user = userRepository.findByUsername(username)
-//                .orElseThrow(() -> new RuntimeException("User not found"));
-//
-//        // 2. Lấy câu hỏi từ database
-//        Question question = questionRepository.findById(questionId)
-//                .orElseThrow(() -> new RuntimeException("Question not found"));
-//
-//        // 3. Lấy loại vote từ VoteDto
-//        VOTETYPE voteTypeEnum = VOTETYPE.valueOf(voteDto.getVoteType()); // "UPVOTE" hoặc "DOWNVOTE"
-//        VoteType voteType = voteTypeRepository.findByType(voteTypeEnum)
-//                .orElseThrow(() -> new RuntimeException("VoteType not found"));
-//
-//        // 4. Kiểm tra xem người dùng đã vote câu hỏi này chưa
-//        Optional<Vote> existingVote = voteRepository.findByUserAndQuestion(user, question);
-//
-//        if (existingVote.isPresent()) {
-//            // Nếu đã vote, kiểm tra loại vote
-//            Vote vote = existingVote.get();
-//            if (vote.getVoteType().equals(voteType)) {
-//                // Nếu đã vote cùng loại → Hủy vote (xóa)
-//                voteRepository.delete(vote);
-//            } else {
-//                // Nếu vote khác loại → Cập nhật loại vote
-//                vote.setVoteType(voteType);
-//                voteRepository.save(vote);
-//            }
-//        } else {
-//            // Nếu chưa vote → Thêm mới vote
-//            Vote newVote = new Vote(user, question, voteType);
-//            voteRepository.save(newVote);
-//        }
-//    }
-    @Transactional
-    public void voteQuestion(Integer questionId, VoteDto voteDto, String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        Question question = questionRepository.findById(questionId)
-                .orElseThrow(() -> new RuntimeException("Question not found"));
-
-        VOTETYPE voteTypeEnum = VOTETYPE.valueOf(voteDto.getVoteType().toUpperCase());
-        VoteType voteType = voteTypeRepository.findByType(voteTypeEnum)
-                .orElseThrow(() -> new RuntimeException("Vote type not found"));
-
-        Optional<Vote> existingVote = voteRepository.findByUserAndQuestion(user, question);
-
-        if (existingVote.isPresent()) {
-            Vote vote = existingVote.get();
-            if (vote.getVoteType().equals(voteType)) {
-                voteRepository.delete(vote);
-            } else {
-                vote.setVoteType(voteType);
-                voteRepository.save(vote);
+    /**
+     * Runs the toggle in its own transaction, retried up to {@value #MAX_ATTEMPTS} times when it loses a deadlock
+     * or a lock wait.
+     * <p>
+     * Two first votes of the same user on the same post race on the unique index: under REPEATABLE READ the delete
+     * that matches nothing takes a gap lock and both inserts wait on the other's gap lock, so InnoDB rolls one back.
+     * The retry runs after the winner committed and sees its vote, so a double-submit behaves like two clicks.
+     */
+    <T> T inTransactionWithRetry(Supplier<T> toggle) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> toggle.get());
+            } catch (PessimisticLockingFailureException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("VOTE TOGGLE LOCK CONFLICT - attempt {}, retrying", attempt);
+                try {
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(5, 20L * attempt));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
             }
-        } else {
-            Vote newVote = new Vote(user, question, voteType);
-            voteRepository.save(newVote);
         }
     }
 
+    /**
+     * Runs the vote toggle as a conditional delete, then an insert that the unique index on the user and post
+     * turns into a no-op if a vote exists, then a conditional switch; the first statement that changes a row wins.
+     * The statements lock the vote rows and index gaps they touch, so the deltas returned match the rows changed;
+     * racing first votes may deadlock on the gap locks, see {@link #inTransactionWithRetry}.
+     *
+     * @param exists checked only when no statement changed a row, to tell a missing post from a replayed vote
+     */
+    private static Toggle toggle(VOTETYPE direction, IntSupplier delete, IntSupplier insert, IntSupplier switchType,
+                                 BooleanSupplier exists, String notFoundMessage) {
+        if (delete.getAsInt() > 0) {
+            return new Toggle(null, -upvotes(direction), -downvotes(direction));
+        }
+        if (insert.getAsInt() > 0) {
+            return new Toggle(direction, upvotes(direction), downvotes(direction));
+        }
+        if (switchType.getAsInt() > 0) {
+            VOTETYPE previous = opposite(direction);
+            return new Toggle(direction, upvotes(direction) - upvotes(previous), downvotes(direction) - downvotes(previous));
+        }
+        // the insert was ignored for a missing post, or a concurrent request already cast the same vote
+        if (!exists.getAsBoolean()) {
+            throw new ResourceNotFoundException(notFoundMessage);
+        }
+        return new Toggle(direction, 0, 0);
+    }
+
+    /**
+     * @param current the vote of the user after the toggle, null if removed
+     */
+    private record Toggle(VOTETYPE current, int upDelta, int downDelta) {
+        boolean changed() {
+            return upDelta != 0 || downDelta != 0;
+        }
 
-}
+        VoteStateDTO toState(Integer postId, int upvotes, int downvotes) {
+            return new VoteStateDTO(postId, current == VOTETYPE.UPVOTE, current == VOTETYPE.DOWNVOTE,
+                    upvotes, downvotes, upvotes * 3 - downvotes);
+        }
+    }
 
+    private static VOTETYPE parseVoteType(VoteDto voteDto) {
+        try {
+            return VOTETYPE.valueOf(voteDto.getVoteType().trim().toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new BadRequestException("Vote type must be UPVOTE or DOWNVOTE");
+        }
+    }
+}
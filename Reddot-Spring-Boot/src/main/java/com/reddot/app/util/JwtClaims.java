@@ -0,0 +1,14 @@
+package com.reddot.app.util;
+
+import java.time.Instant;
+
+/**
+ * The claims of a token whose signature and expiration were verified by {@link JwtUtil#verify(String)}.
+ *
+ * @param id        the {@code jti} claim, null on the tokens issued before it was added
+ * @param userId    the {@code userId} claim
+ * @param email     the subject
+ * @param expiresAt the {@code exp} claim
+ */
+public record JwtClaims(String id, Integer userId, String email, Instant expiresAt) {
+}
@@ -1,8 +1,11 @@
 package com.reddot.app.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.reddot.app.entity.User;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Encoders;
 import io.jsonwebtoken.security.InvalidKeyException;
@@ -12,11 +15,13 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
 
 // TODO: Implement this class
 // TODO: IMPROVE THIS CLASS WITH TRY-CATCH BLOCKS
@@ -26,10 +31,15 @@ public class JwtUtil {
 
     static final long JWT_EXPIRATION = 1000 * 60 * 60 * 10;
     static final long seconds = 2 * 60;
+    static final int VERIFIED_TOKENS = 10_000;
 
     // Generate a test key suitable for HMAC
     MacAlgorithm alg = Jwts.SIG.HS512; // or HS256, HS384
     SecretKey key;
+    // thread-safe, built once
+    final JwtParser parser;
+    // claims of recently verified tokens, by token
+    final Cache<String, JwtClaims> verified;
 
     public JwtUtil() {
         // to save this secret key, you can encode it to base64
@@ -41,42 +51,50 @@ public class JwtUtil {
 
         log.warn("DO NOT LOG SECRET KEY IN PRODUCTION");
         log.info("encoded:{}", encoded);
-    }
-
-    public String extractEmail(String jws) {
-        return extractClaim(jws, Claims::getSubject);
-    }
-
-    public Integer extractUserId(String jws) {
-        return extractClaim(jws, claims -> claims.get("userId", Integer.class));
-    }
 
-    private <T> T extractClaim(String jws, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(jws);
-        return claimsResolver.apply(claims);
+        // call verifyWith or decryptWith methods if you want to parse signed or encrypted JWTs
+        this.parser = Jwts.parser()
+                .verifyWith(key)
+                .clockSkewSeconds(seconds)  // set the clock skew to 2 minutes
+                .build();
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(VERIFIED_TOKENS)
+                .expireAfterWrite(Duration.ofMillis(JWT_EXPIRATION + seconds * 1000))
+                .build();
     }
-    // TODO: properly configure this method match with createToken method if token is signed or encrypted
 
-    private Claims extractAllClaims(String jws) {
+    /**
+     * Verify the signature and the expiration of the token, once per token: the claims of recently verified
+     * tokens are kept until they expire, so the clients sending the same token skip the HMAC.
+     *
+     * @throws JwtException if the token is invalid or expired
+     */
+    public JwtClaims verify(String jws) {
+        JwtClaims claims = verified.getIfPresent(jws);
+        if (claims != null) {
+            if (Instant.now().isBefore(claims.expiresAt().plusSeconds(seconds))) {
+                return claims;
+            }
+            // expired since it was verified, the parser rejects it
+            verified.invalidate(jws);
+        }
         try {
-            // Read (Parse) JWS
-            log.info("Extracting all claims from JWS");
-            return (Claims) Jwts.parser()
-                    .verifyWith(key)    // call verifyWith or decryptWith methods if you want to parse signed or encrypted JWTs
-                    .clockSkewSeconds(seconds)  // set the clock skew to 2 minutes
-                    .build()
-                    .parse(jws).getPayload();
-        } catch (JwtException e) {
+            Claims payload = parser.parseSignedClaims(jws).getPayload();
+            claims = new JwtClaims(payload.getId(), payload.get("userId", Integer.class), payload.getSubject(),
+                    payload.getExpiration().toInstant());
+        } catch (JwtException | IllegalArgumentException e) {
             throw new JwtException("Invalid JWT token");
         }
+        verified.put(jws, claims);
+        return claims;
     }
 
-    private Boolean isTokenExpired(String jws) {
-        return extractExpiration(jws).before(new Date());
+    public String extractEmail(String jws) {
+        return verify(jws).email();
     }
 
-    private Date extractExpiration(String jws) {
-        return extractClaim(jws, Claims::getExpiration);
+    public Integer extractUserId(String jws) {
+        return verify(jws).userId();
     }
 
     public String generateToken(User user) {
@@ -86,6 +104,8 @@ public class JwtUtil {
         claims.put("sub", user.getEmail());
         claims.put("aud", "end-user");
         claims.put("userId", user.getId());
+        // unique id of the token, so it can be revoked on its own
+        claims.put("jti", UUID.randomUUID().toString());
         return createToken(claims);
     }
 
@@ -109,8 +129,7 @@ public class JwtUtil {
     }
 
     public Boolean validateToken(String jws, UserDetails userDetails) {
-        final String email = extractEmail(jws);
         User user = (User) userDetails;
-        return (email.equals(user.getEmail()) && !isTokenExpired(jws));
+        return verify(jws).email().equals(user.getEmail());
     }
 }
\ No newline at end of file
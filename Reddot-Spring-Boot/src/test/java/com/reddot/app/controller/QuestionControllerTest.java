@@ -0,0 +1,104 @@
+package com.reddot.app.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reddot.app.dto.response.QuestionDTO;
+import com.reddot.app.exception.GlobalExceptionHandler;
+import com.reddot.app.service.cache.AnonymousResponseCache;
+import com.reddot.app.service.comment.CommentService;
+import com.reddot.app.service.question.QuestionService;
+import com.reddot.app.service.system.ResourceVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class QuestionControllerTest {
+    private QuestionService questionService;
+    private ResourceVersionService resourceVersionService;
+    private AnonymousResponseCache anonymousResponseCache;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.clearContext();
+        questionService = mock(QuestionService.class);
+        resourceVersionService = mock(ResourceVersionService.class);
+        // fresh for a minute, so the conditional requests below are answered from the cache
+        anonymousResponseCache = new AnonymousResponseCache(new ObjectMapper(), Duration.ofMinutes(1), Duration.ofMinutes(1), 16);
+        mockMvc = MockMvcBuilders.standaloneSetup(new QuestionController(questionService, mock(CommentService.class),
+                anonymousResponseCache, resourceVersionService)).setControllerAdvice(new GlobalExceptionHandler()).build();
+        when(questionService.questionGetByIds(anyList(), any(Boolean.class))).thenReturn(List.of(question("first")));
+    }
+
+    @Test
+    void anonymousConditionalRequestIsAnsweredFromTheCache() throws Exception {
+        String etag = mockMvc.perform(get("/questions/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/questions/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        verify(questionService, times(1)).questionGetByIds(anyList(), any(Boolean.class));
+        verify(resourceVersionService, never()).ofQuestions(anyList(), any());
+    }
+
+    @Test
+    void changedQuestionIsServedAgainOnceTheCacheIsRefreshed() throws Exception {
+        // every entry is past its max age, so each request reloads it
+        anonymousResponseCache = new AnonymousResponseCache(new ObjectMapper(), Duration.ZERO, Duration.ZERO, 16);
+        mockMvc = MockMvcBuilders.standaloneSetup(new QuestionController(questionService, mock(CommentService.class),
+                anonymousResponseCache, resourceVersionService)).build();
+        String etag = mockMvc.perform(get("/questions/1"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        when(questionService.questionGetByIds(anyList(), any(Boolean.class))).thenReturn(List.of(question("edited")));
+
+        String changed = mockMvc.perform(get("/questions/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertThat(changed).isNotEqualTo(etag);
+    }
+
+    @Test
+    void searchWithoutContentNorDisplayNameIsRejected() throws Exception {
+        mockMvc.perform(get("/questions/search")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/questions/search").param("content", " ").param("view", "summary"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(questionService);
+    }
+
+    @Test
+    void searchByDisplayName() throws Exception {
+        mockMvc.perform(get("/questions/search").param("displayName", "alice")).andExpect(status().isOk());
+
+        verify(questionService).searchByDisplayName("alice");
+    }
+
+    private static QuestionDTO question(String title) {
+        QuestionDTO dto = new QuestionDTO();
+        dto.setQuestionId(1);
+        dto.setTitle(title);
+        return dto;
+    }
+}
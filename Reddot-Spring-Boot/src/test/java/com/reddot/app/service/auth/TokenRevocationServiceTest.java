@@ -0,0 +1,141 @@
+package com.reddot.app.service.auth;
+
+import com.reddot.app.repository.JwtTokenRepository;
+import com.reddot.app.util.JwtClaims;
+import com.reddot.app.util.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationServiceTest {
+    private static final int USER = 7;
+
+    private JwtTokenRepository jwtTokenRepository;
+    private TokenRevocationService service;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenRepository = mock(JwtTokenRepository.class);
+        when(jwtTokenRepository.revoke(anyString(), any())).thenReturn(1);
+        service = new TokenRevocationService(jwtTokenRepository, mock(JwtUtil.class), 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void revokedTokenIsRejectedAndOthersAreNot() {
+        JwtClaims revoked = claims(Duration.ofHours(1));
+        JwtClaims other = claims(Duration.ofHours(1));
+
+        service.revoke(revoked);
+
+        assertThat(service.isRevoked(revoked)).isTrue();
+        assertThat(service.isRevoked(other)).isFalse();
+    }
+
+    @Test
+    void revocationIsVisibleOnlyOnceCommitted() {
+        JwtClaims claims = claims(Duration.ofHours(1));
+        TransactionSynchronizationManager.initSynchronization();
+
+        service.revoke(claims);
+        assertThat(service.isRevoked(claims)).isFalse();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(service.isRevoked(claims)).isTrue();
+    }
+
+    @Test
+    void unknownOrAlreadyRevokedTokenIsNotMirrored() {
+        JwtClaims claims = claims(Duration.ofHours(1));
+        when(jwtTokenRepository.revoke(eq(claims.id()), any())).thenReturn(0);
+
+        service.revoke(claims);
+
+        assertThat(service.isRevoked(claims)).isFalse();
+    }
+
+    @Test
+    void tokenWithoutIdCannotBeRevoked() {
+        JwtClaims legacy = new JwtClaims(null, USER, "user@reddot.com", Instant.now().plusSeconds(60));
+
+        service.revoke(legacy);
+
+        assertThat(service.isRevoked(legacy)).isFalse();
+        verify(jwtTokenRepository, never()).revoke(any(), any());
+    }
+
+    @Test
+    void revokeAllRejectsEveryActiveSessionOfTheUser() {
+        JwtClaims first = claims(Duration.ofHours(1));
+        JwtClaims second = claims(Duration.ofHours(2));
+        when(jwtTokenRepository.findActiveByUserId(eq(USER), any())).thenReturn(List.of(row(first), row(second)));
+
+        service.revokeAll(USER);
+
+        verify(jwtTokenRepository).revokeAllByUserId(eq(USER), any());
+        assertThat(service.isRevoked(first)).isTrue();
+        assertThat(service.isRevoked(second)).isTrue();
+        assertThat(service.isRevoked(claims(Duration.ofHours(1)))).isFalse();
+    }
+
+    @Test
+    void refreshLoadsOtherInstancesRevocationsAndKeepsUnexpiredLocalOnes() {
+        JwtClaims local = claims(Duration.ofHours(1));
+        JwtClaims expiredLocal = claims(Duration.ofSeconds(-1));
+        JwtClaims remote = claims(Duration.ofHours(1));
+        service.revoke(local);
+        service.revoke(expiredLocal);
+        when(jwtTokenRepository.findRevoked(any())).thenReturn(List.<Object[]>of(row(remote)));
+
+        service.refresh();
+
+        verify(jwtTokenRepository).deleteExpired(any());
+        assertThat(service.isRevoked(remote)).isTrue();
+        assertThat(service.isRevoked(local)).isTrue();
+        assertThat(service.isRevoked(expiredLocal)).isFalse();
+    }
+
+    @Test
+    void filterHasNoFalseNegativeBeyondItsExpectedSize() {
+        RevokedTokens tokens = new RevokedTokens(1024);
+        Instant expiresAt = Instant.now().plusSeconds(60);
+        List<String> ids = Stream.generate(() -> UUID.randomUUID().toString()).limit(5000).toList();
+        ids.forEach(id -> tokens.add(id, expiresAt));
+
+        assertThat(ids).allMatch(tokens::contains);
+        assertThat(tokens.contains(UUID.randomUUID().toString())).isFalse();
+        assertThat(tokens.size()).isEqualTo(5000);
+    }
+
+    private static JwtClaims claims(Duration validFor) {
+        return new JwtClaims(UUID.randomUUID().toString(), USER, "user@reddot.com", Instant.now().plus(validFor));
+    }
+
+    private static Object[] row(JwtClaims claims) {
+        return new Object[]{claims.id(), Timestamp.from(claims.expiresAt())};
+    }
+}
@@ -0,0 +1,79 @@
+package com.reddot.app.service.ranking;
+
+import com.reddot.app.repository.QuestionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class HotRankingServiceTest {
+    private HotRankingService hotRankingService;
+
+    @BeforeEach
+    void setUp() {
+        hotRankingService = new HotRankingService(mock(QuestionRepository.class), 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void writesOutsideOfATransactionApplyRightAway() {
+        hotRankingService.onQuestionCreated(1, LocalDateTime.now());
+        hotRankingService.onQuestionVoted(1, 3);
+        hotRankingService.onQuestionCommented(1, 1);
+
+        HotRankingService.Entry entry = hotRankingService.entryOf(1);
+        assertThat(entry.score()).isEqualTo(3);
+        assertThat(entry.commentCount()).isEqualTo(1);
+    }
+
+    @Test
+    void createdQuestionIsRankedOnlyOnceCommitted() {
+        TransactionSynchronizationManager.initSynchronization();
+        hotRankingService.onQuestionCreated(1, LocalDateTime.now());
+
+        assertThat(hotRankingService.entryOf(1)).isNull();
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(hotRankingService.entryOf(1)).isNotNull();
+    }
+
+    @Test
+    void rolledBackWritesLeaveNoTrace() {
+        hotRankingService.onQuestionCreated(1, LocalDateTime.now());
+        TransactionSynchronizationManager.initSynchronization();
+        hotRankingService.onQuestionCreated(2, LocalDateTime.now());
+        hotRankingService.onQuestionVoted(1, 3);
+        hotRankingService.onQuestionCommented(1, 1);
+        hotRankingService.onQuestionRemoved(1);
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(hotRankingService.entryOf(2)).isNull();
+        HotRankingService.Entry entry = hotRankingService.entryOf(1);
+        assertThat(entry.score()).isZero();
+        assertThat(entry.commentCount()).isZero();
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        for (TransactionSynchronization synchronization : synchronizations) {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronization.afterCommit();
+            }
+            synchronization.afterCompletion(status);
+        }
+    }
+}
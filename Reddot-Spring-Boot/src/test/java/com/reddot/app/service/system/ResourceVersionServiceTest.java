@@ -0,0 +1,124 @@
+package com.reddot.app.service.system;
+
+import com.reddot.app.entity.enumeration.VOTETYPE;
+import com.reddot.app.repository.CommentRepository;
+import com.reddot.app.repository.QuestionRepository;
+import com.reddot.app.service.system.ResourceVersionService.ResourceVersion;
+import com.reddot.app.service.viewer.ViewerState;
+import com.reddot.app.service.viewer.ViewerStateService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ResourceVersionServiceTest {
+    private static final int QUESTION = 1, COMMENT = 10, VIEWER = 7;
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2024, 5, 1, 12, 0);
+    private static final List<Integer> IDS = List.of(QUESTION);
+
+    @Mock
+    private QuestionRepository questionRepository;
+    @Mock
+    private CommentRepository commentRepository;
+    @Mock
+    private ViewerStateService viewerStateService;
+    @InjectMocks
+    private ResourceVersionService resourceVersionService;
+
+    @BeforeEach
+    void setUp() {
+        when(questionRepository.findVersionsByIds(IDS)).thenReturn(List.<Object[]>of(
+                new Object[]{QUESTION, "PUBLIC", UPDATED_AT, UPDATED_AT, 3, 1, 1, UPDATED_AT}));
+        comments(2, 0);
+        when(viewerStateService.forQuestions(eq(VIEWER), anyCollection())).thenReturn(ViewerState.EMPTY);
+        when(viewerStateService.forComments(eq(VIEWER), anyCollection())).thenReturn(ViewerState.EMPTY);
+    }
+
+    @Test
+    void sameRowsGiveTheSameETag() {
+        assertThat(resourceVersionService.ofQuestions(IDS, VIEWER).etag())
+                .isEqualTo(resourceVersionService.ofQuestions(IDS, VIEWER).etag());
+    }
+
+    // comment votes change the comment counters only, without touching any date
+    @Test
+    void voteOnAnEmbeddedCommentChangesTheQuestionETag() {
+        String before = resourceVersionService.ofQuestions(IDS, null).etag();
+        comments(3, 0);
+
+        assertThat(resourceVersionService.ofQuestions(IDS, null).etag()).isNotEqualTo(before);
+    }
+
+    @Test
+    void viewerVoteOnAnEmbeddedCommentChangesTheQuestionETag() {
+        String before = resourceVersionService.ofQuestions(IDS, VIEWER).etag();
+        when(viewerStateService.forComments(VIEWER, List.of(COMMENT)))
+                .thenReturn(new ViewerState(Map.of(COMMENT, VOTETYPE.UPVOTE), Set.of()));
+
+        assertThat(resourceVersionService.ofQuestions(IDS, VIEWER).etag()).isNotEqualTo(before);
+    }
+
+    @Test
+    void viewerBookmarkChangesTheQuestionETag() {
+        String before = resourceVersionService.ofQuestions(IDS, VIEWER).etag();
+        when(viewerStateService.forQuestions(VIEWER, IDS)).thenReturn(new ViewerState(Map.of(), Set.of(QUESTION)));
+
+        assertThat(resourceVersionService.ofQuestions(IDS, VIEWER).etag()).isNotEqualTo(before);
+    }
+
+    @Test
+    void eachViewerHasItsOwnETag() {
+        when(viewerStateService.forQuestions(eq(8), anyCollection())).thenReturn(ViewerState.EMPTY);
+        when(viewerStateService.forComments(eq(8), anyCollection())).thenReturn(ViewerState.EMPTY);
+
+        assertThat(resourceVersionService.ofQuestions(IDS, VIEWER).etag())
+                .isNotEqualTo(resourceVersionService.ofQuestions(IDS, 8).etag());
+    }
+
+    @Test
+    void questionWithCommentsHasNoLastModified() {
+        assertThat(resourceVersionService.ofQuestions(IDS, null).lastModified()).isEqualTo(-1);
+    }
+
+    @Test
+    void questionWithoutCommentsIsDatedByItsLatestChange() {
+        when(commentRepository.findCountersByQuestionIds(IDS)).thenReturn(List.of());
+
+        ResourceVersion version = resourceVersionService.ofQuestions(IDS, null);
+
+        assertThat(version.lastModified()).isEqualTo(UPDATED_AT.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    @Test
+    void commentVersionChangesWithItsCounters() {
+        when(commentRepository.findVersionsByIds(List.of(COMMENT))).thenReturn(List.<Object[]>of(
+                new Object[]{COMMENT, "PUBLIC", UPDATED_AT, null, 2, 0}));
+        String before = resourceVersionService.ofComments(List.of(COMMENT), null).etag();
+        when(commentRepository.findVersionsByIds(List.of(COMMENT))).thenReturn(List.<Object[]>of(
+                new Object[]{COMMENT, "PUBLIC", UPDATED_AT, null, 2, 1}));
+
+        assertThat(resourceVersionService.ofComments(List.of(COMMENT), null).etag()).isNotEqualTo(before);
+    }
+
+    private void comments(int upvotes, int downvotes) {
+        when(commentRepository.findCountersByQuestionIds(IDS)).thenReturn(List.<Object[]>of(
+                new Object[]{QUESTION, COMMENT, upvotes, downvotes}));
+    }
+}
@@ -0,0 +1,94 @@
+package com.reddot.app.service.user;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class LastAccessWriterTest {
+    private JdbcTemplate jdbcTemplate;
+    private LastAccessWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        writer = new LastAccessWriter(jdbcTemplate);
+    }
+
+    @Test
+    void requestsOfAUserAreWrittenOncePerFlush() {
+        long before = System.currentTimeMillis();
+        writer.touch(1);
+        writer.touch(1);
+        writer.touch(2);
+
+        writer.flush();
+
+        List<Object[]> batch = captureBatch();
+        assertThat(batch).extracting(row -> row[2]).containsExactlyInAnyOrder(1, 2);
+        assertThat(batch).allSatisfy(row -> assertThat(((Timestamp) row[0]).getTime()).isGreaterThanOrEqualTo(before));
+    }
+
+    @Test
+    void flushWritesOnlyTheUsersSeenSinceTheLastOne() {
+        writer.touch(1);
+        writer.flush();
+        writer.flush();
+
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void failedFlushIsRetriedOnTheNextOne() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(new int[]{1});
+        writer.touch(1);
+
+        writer.flush();
+        writer.flush();
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+    }
+
+    // the delete request of a user is cancelled by the login itself, flushes only write last_access
+    @Test
+    void flushOnlyWritesLastAccess() {
+        writer.touch(1);
+
+        writer.flush();
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).batchUpdate(sql.capture(), anyList());
+        assertThat(sql.getValue()).startsWith("UPDATE users SET last_access");
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void nothingSeenWritesNothing() {
+        writer.flush();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> captureBatch() {
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), batch.capture());
+        return batch.getValue();
+    }
+}
@@ -0,0 +1,107 @@
+package com.reddot.app.service.user;
+
+import com.reddot.app.entity.Role;
+import com.reddot.app.entity.User;
+import com.reddot.app.entity.enumeration.ROLENAME;
+import com.reddot.app.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PrincipalCacheTest {
+    private static final int USER = 7;
+
+    private UserRepository userRepository;
+    private PrincipalCache principalCache;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        when(userRepository.findPrincipalRowsById(USER)).thenReturn(List.of(
+                new Object[]{USER, "user@reddot.com", "user", true, ROLENAME.ROLE_USER, 1},
+                new Object[]{USER, "user@reddot.com", "user", true, ROLENAME.ROLE_MODERATOR, 3}));
+        principalCache = new PrincipalCache(userRepository, 100, Duration.ofMinutes(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void principalIsLoadedOnceWithItsRoles() {
+        CachedPrincipal first = principalCache.get(USER);
+        CachedPrincipal second = principalCache.get(USER);
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.email()).isEqualTo("user@reddot.com");
+        assertThat(first.enabled()).isTrue();
+        assertThat(first.roles()).containsEntry(ROLENAME.ROLE_USER, 1).containsEntry(ROLENAME.ROLE_MODERATOR, 3);
+        verify(userRepository, times(1)).findPrincipalRowsById(USER);
+    }
+
+    @Test
+    void detachedUserCarriesTheRoleIds() {
+        User user = principalCache.get(USER).toUser();
+
+        assertThat(user.getId()).isEqualTo(USER);
+        assertThat(user.getRoles()).extracting(Role::getId).containsExactlyInAnyOrder(1, 3);
+    }
+
+    @Test
+    void missingUserIsNotCached() {
+        assertThat(principalCache.get(99)).isNull();
+        assertThat(principalCache.get(99)).isNull();
+
+        verify(userRepository, times(2)).findPrincipalRowsById(99);
+    }
+
+    @Test
+    void userWithoutRoleHasNoRole() {
+        when(userRepository.findPrincipalRowsById(8)).thenReturn(List.<Object[]>of(
+                new Object[]{8, "new@reddot.com", "new", false, null, null}));
+
+        CachedPrincipal principal = principalCache.get(8);
+
+        assertThat(principal.enabled()).isFalse();
+        assertThat(principal.roles()).isEmpty();
+    }
+
+    @Test
+    void evictReloadsTheWrittenRow() {
+        principalCache.get(USER);
+        when(userRepository.findPrincipalRowsById(USER)).thenReturn(List.<Object[]>of(
+                new Object[]{USER, "changed@reddot.com", "user", true, ROLENAME.ROLE_USER, 1}));
+
+        principalCache.evict(USER);
+
+        assertThat(principalCache.get(USER).email()).isEqualTo("changed@reddot.com");
+    }
+
+    // a request between the eviction and the commit caches the old row, the eviction after commit drops it
+    @Test
+    void evictInTransactionDropsWhatWasCachedBeforeTheCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        principalCache.evict(USER);
+        principalCache.get(USER);
+        when(userRepository.findPrincipalRowsById(USER)).thenReturn(List.<Object[]>of(
+                new Object[]{USER, "user@reddot.com", "user", false, ROLENAME.ROLE_USER, 1}));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(principalCache.get(USER).enabled()).isFalse();
+    }
+}
@@ -0,0 +1,33 @@
+package com.reddot.app.service.user;
+
+import com.reddot.app.repository.userDeleteRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class UserServiceManagerImpTest {
+    @Mock
+    private LastAccessWriter lastAccessWriter;
+    @Mock
+    private userDeleteRepository userDeleteRepository;
+    @InjectMocks
+    private UserServiceManagerImp userServiceManager;
+
+    // a delete request made right after the login must not be removed by a later last-access flush
+    @Test
+    void loginCancelsTheDeleteRequestBeforeReturning() {
+        userServiceManager.userOnLoginUpdate(7);
+
+        verify(userDeleteRepository).removeByUserIdIn(List.of(7));
+        verify(lastAccessWriter).touch(7);
+        verify(lastAccessWriter, never()).flush();
+    }
+}
@@ -0,0 +1,183 @@
+package com.reddot.app.service.vote;
+
+import com.reddot.app.service.cache.AnonymousResponseCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VoteCounterBufferTest {
+    private JdbcTemplate jdbcTemplate;
+    private AnonymousResponseCache anonymousResponseCache;
+    private VoteCounterBuffer buffer;
+    // [upvotes, downvotes] written per question id
+    private final ConcurrentHashMap<Integer, long[]> written = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        anonymousResponseCache = mock(AnonymousResponseCache.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(inv -> {
+            List<Object[]> batch = inv.getArgument(1);
+            for (Object[] row : batch) {
+                written.merge((Integer) row[5], new long[]{(Long) row[0], (Long) row[1]},
+                        (a, b) -> new long[]{a[0] + b[0], a[1] + b[1]});
+            }
+            return new int[batch.size()];
+        });
+        buffer = new VoteCounterBuffer(jdbcTemplate, anonymousResponseCache);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        buffer.flushOnShutdown();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void flushWritesTheSummedDeltasOfEachQuestionOnce() {
+        buffer.add(1, 1, 0);
+        buffer.add(1, 1, 0);
+        buffer.add(1, -1, 1);
+        buffer.add(2, 0, 1);
+
+        assertThat(buffer.pending(1)).containsExactly(1, 1);
+        buffer.flush();
+
+        assertThat(written.get(1)).containsExactly(1, 1);
+        assertThat(written.get(2)).containsExactly(0, 1);
+        assertThat(buffer.pending(1)).containsExactly(0, 0);
+        verify(anonymousResponseCache).invalidate();
+    }
+
+    @Test
+    void emptyFlushWritesNothing() {
+        buffer.flush();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void deltaIsAppliedOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        buffer.add(1, 1, 0);
+
+        assertThat(buffer.pending(1)).containsExactly(0, 0);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(buffer.pending(1)).containsExactly(1, 0);
+    }
+
+    @Test
+    void failedFlushKeepsTheDeltasForTheNextFlush() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenAnswer(inv -> {
+                    List<Object[]> batch = inv.getArgument(1);
+                    batch.forEach(row -> written.put((Integer) row[5], new long[]{(Long) row[0], (Long) row[1]}));
+                    return new int[batch.size()];
+                });
+        buffer.add(1, 1, 0);
+
+        buffer.flush();
+        assertThat(buffer.pending(1)).containsExactly(1, 0);
+        buffer.flush();
+
+        assertThat(written.get(1)).containsExactly(1, 0);
+    }
+
+    // the pending deltas are reset before the flushed row commits: a read in between waits for the flush
+    @Test
+    void countersReadDuringAFlushIncludeTheFlushedDelta() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(inv -> {
+            writing.countDown();
+            commit.await(5, TimeUnit.SECONDS);
+            List<Object[]> batch = inv.getArgument(1);
+            batch.forEach(row -> written.put((Integer) row[5], new long[]{(Long) row[0], (Long) row[1]}));
+            return new int[batch.size()];
+        });
+        buffer.add(1, 1, 0);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            pool.execute(buffer::flush);
+            assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<long[]> read = pool.submit(() -> buffer.counters(1, () -> written.getOrDefault(1, new long[]{0, 0})));
+            TimeUnit.MILLISECONDS.sleep(50);
+            assertThat(read).isNotDone();
+
+            commit.countDown();
+
+            assertThat(read.get(5, TimeUnit.SECONDS)).containsExactly(1, 0);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void countersAddThePendingDeltasToTheStoredOnes() {
+        buffer.add(1, 1, 0);
+        buffer.add(1, 0, 1);
+
+        assertThat(buffer.counters(1, () -> new long[]{10, 2})).containsExactly(11, 3);
+    }
+
+    // votes keep landing while idle entries are dropped: none may be added to an entry already removed from the map
+    @Test
+    void noVoteIsLostWhileIdleEntriesAreDropped() throws Exception {
+        int voters = 4, votesPerVoter = 2_000;
+        ExecutorService pool = Executors.newFixedThreadPool(voters + 1);
+        CountDownLatch done = new CountDownLatch(voters);
+        AtomicBoolean voting = new AtomicBoolean(true);
+        pool.execute(() -> {
+            while (voting.get()) {
+                buffer.flush();
+            }
+        });
+        for (int v = 0; v < voters; v++) {
+            int questionId = v;
+            pool.execute(() -> {
+                for (int i = 0; i < votesPerVoter; i++) {
+                    buffer.add(questionId, 1, 0);
+                    // about as long as the idle flushes, so entries are often dropped right when a vote lands
+                    LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(500_000, 1_500_000));
+                }
+                done.countDown();
+            });
+        }
+        assertThat(done.await(60, TimeUnit.SECONDS)).isTrue();
+        voting.set(false);
+        pool.shutdown();
+        assertThat(pool.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+        buffer.flush();
+
+        long total = written.values().stream().mapToLong(counts -> counts[0]).sum();
+        assertThat(total).isEqualTo((long) voters * votesPerVoter);
+    }
+}
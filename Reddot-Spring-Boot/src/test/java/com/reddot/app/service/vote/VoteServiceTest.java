@@ -0,0 +1,229 @@
+package com.reddot.app.service.vote;
+
+import com.reddot.app.dto.request.VoteDto;
+import com.reddot.app.dto.response.VoteStateDTO;
+import com.reddot.app.entity.enumeration.VOTETYPE;
+import com.reddot.app.repository.CommentRepository;
+import com.reddot.app.repository.QuestionRepository;
+import com.reddot.app.repository.VoteRepository;
+import com.reddot.app.service.cache.AnonymousResponseCache;
+import com.reddot.app.service.event.DomainEventBus;
+import com.reddot.app.service.ranking.HotRankingService;
+import com.reddot.app.service.system.ReferenceDataRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class VoteServiceTest {
+    private static final int UP = 1, DOWN = 2;
+    private static final int USER = 7, QUESTION = 42, COMMENT = 43;
+
+    @Mock
+    private VoteRepository voteRepository;
+    @Mock
+    private QuestionRepository questionRepository;
+    @Mock
+    private CommentRepository commentRepository;
+    @Mock
+    private ReferenceDataRegistry referenceDataRegistry;
+    @Mock
+    private HotRankingService hotRankingService;
+    @Mock
+    private AnonymousResponseCache anonymousResponseCache;
+    @Mock
+    private VoteCounterBuffer voteCounterBuffer;
+    @Mock
+    private DomainEventBus domainEventBus;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    // vote type by post id of the single voter, standing in for the votes table and its unique index
+    private final Map<Integer, Integer> votes = new ConcurrentHashMap<>();
+    private final AtomicInteger upDeltas = new AtomicInteger();
+    private final AtomicInteger downDeltas = new AtomicInteger();
+    private VoteService voteService;
+
+    @BeforeEach
+    void setUp() {
+        when(referenceDataRegistry.voteTypeId(VOTETYPE.UPVOTE)).thenReturn(UP);
+        when(referenceDataRegistry.voteTypeId(VOTETYPE.DOWNVOTE)).thenReturn(DOWN);
+        when(voteRepository.deleteQuestionVote(eq(USER), anyInt(), anyInt()))
+                .thenAnswer(inv -> votes.remove(inv.<Integer>getArgument(1), inv.<Integer>getArgument(2)) ? 1 : 0);
+        when(voteRepository.insertQuestionVote(eq(USER), anyInt(), anyInt(), any()))
+                .thenAnswer(inv -> votes.putIfAbsent(inv.getArgument(1), inv.getArgument(2)) == null ? 1 : 0);
+        when(voteRepository.switchQuestionVote(eq(USER), anyInt(), anyInt(), any()))
+                .thenAnswer(inv -> votes.replace(inv.getArgument(1), 3 - inv.<Integer>getArgument(2), inv.getArgument(2)) ? 1 : 0);
+        when(voteRepository.deleteCommentVote(eq(USER), anyInt(), anyInt()))
+                .thenAnswer(inv -> votes.remove(inv.<Integer>getArgument(1), inv.<Integer>getArgument(2)) ? 1 : 0);
+        when(voteRepository.insertCommentVote(eq(USER), anyInt(), anyInt(), any()))
+                .thenAnswer(inv -> votes.putIfAbsent(inv.getArgument(1), inv.getArgument(2)) == null ? 1 : 0);
+        when(voteRepository.switchCommentVote(eq(USER), anyInt(), anyInt(), any()))
+                .thenAnswer(inv -> votes.replace(inv.getArgument(1), 3 - inv.<Integer>getArgument(2), inv.getArgument(2)) ? 1 : 0);
+        when(questionRepository.existsById(QUESTION)).thenReturn(true);
+        when(questionRepository.findCountersById(QUESTION)).thenReturn(List.<Object[]>of(new Object[]{10, 2}));
+        when(commentRepository.findCountersById(COMMENT)).thenReturn(List.<Object[]>of(new Object[]{5, 1}));
+        // stored counters plus the deltas added by the committed toggles
+        when(voteCounterBuffer.counters(eq(QUESTION), any())).thenAnswer(inv -> {
+            long[] stored = inv.<Supplier<long[]>>getArgument(1).get();
+            return new long[]{stored[0] + upDeltas.get(), stored[1] + downDeltas.get()};
+        });
+        doAnswer(inv -> {
+            upDeltas.addAndGet(inv.getArgument(1));
+            downDeltas.addAndGet(inv.getArgument(2));
+            return null;
+        }).when(voteCounterBuffer).add(eq(QUESTION), anyInt(), anyInt());
+        when(transactionTemplate.execute(any())).thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        voteService = new VoteService(voteRepository, questionRepository, commentRepository, referenceDataRegistry,
+                hotRankingService, anonymousResponseCache, voteCounterBuffer, domainEventBus, transactionTemplate);
+    }
+
+    @Test
+    void firstVoteIsCastThenSameDirectionRemovesIt() {
+        VoteStateDTO cast = voteService.voteQuestion(QUESTION, vote("upvote"), USER);
+        assertThat(cast.isUpvoted()).isTrue();
+        assertThat(cast.getUpvotes()).isEqualTo(11);
+        assertThat(votes).containsEntry(QUESTION, UP);
+
+        VoteStateDTO removed = voteService.voteQuestion(QUESTION, vote("UPVOTE"), USER);
+        assertThat(removed.isUpvoted()).isFalse();
+        assertThat(removed.getUpvotes()).isEqualTo(10);
+        assertThat(votes).doesNotContainKey(QUESTION);
+        assertThat(upDeltas).hasValue(0);
+    }
+
+    @Test
+    void otherDirectionSwitchesTheVote() {
+        voteService.voteQuestion(QUESTION, vote("UPVOTE"), USER);
+        VoteStateDTO switched = voteService.voteQuestion(QUESTION, vote("DOWNVOTE"), USER);
+
+        assertThat(switched.isDownvoted()).isTrue();
+        assertThat(switched.isUpvoted()).isFalse();
+        assertThat(votes).containsEntry(QUESTION, DOWN);
+        assertThat(upDeltas).hasValue(0);
+        assertThat(downDeltas).hasValue(1);
+    }
+
+    @Test
+    void commentCountersAreUpdatedInTheSameTransaction() {
+        votes.put(COMMENT, UP);
+        when(commentRepository.existsById(COMMENT)).thenReturn(true);
+
+        VoteStateDTO switched = voteService.voteComment(COMMENT, vote("DOWNVOTE"), USER);
+
+        assertThat(switched.isDownvoted()).isTrue();
+        verify(commentRepository).addVoteCounts(COMMENT, -1, 1);
+    }
+
+    @Test
+    void replayedVoteOnMissingQuestionIsNotFound() {
+        when(voteRepository.insertQuestionVote(eq(USER), eq(99), anyInt(), any())).thenReturn(0);
+        when(questionRepository.existsById(99)).thenReturn(false);
+
+        assertThatThrownBy(() -> voteService.voteQuestion(99, vote("UPVOTE"), USER))
+                .hasMessageContaining("99");
+        verify(voteCounterBuffer, never()).add(eq(99), anyInt(), anyInt());
+    }
+
+    @Test
+    void toggleThatLosesADeadlockIsRetried() {
+        AtomicBoolean deadlocked = new AtomicBoolean();
+        doAnswer(inv -> {
+            if (deadlocked.compareAndSet(false, true)) {
+                throw new CannotAcquireLockException("Deadlock found when trying to get lock");
+            }
+            return inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+        }).when(transactionTemplate).execute(any());
+
+        VoteStateDTO cast = voteService.voteQuestion(QUESTION, vote("UPVOTE"), USER);
+
+        assertThat(cast.isUpvoted()).isTrue();
+        verify(transactionTemplate, times(2)).execute(any());
+    }
+
+    @Test
+    void toggleGivesUpAfterMaxAttempts() {
+        doThrow(new CannotAcquireLockException("Lock wait timeout exceeded")).when(transactionTemplate).execute(any());
+
+        assertThatThrownBy(() -> voteService.voteQuestion(QUESTION, vote("UPVOTE"), USER))
+                .isInstanceOf(CannotAcquireLockException.class);
+        verify(transactionTemplate, times(VoteService.MAX_ATTEMPTS)).execute(any());
+        verify(voteCounterBuffer, never()).add(anyInt(), anyInt(), anyInt());
+    }
+
+    // a double-submitted first vote: one transaction loses the gap-lock deadlock, its retry sees the winner's vote
+    @Test
+    void concurrentFirstVotesBehaveLikeTwoClicks() throws Exception {
+        ReentrantLock rowLocks = new ReentrantLock();
+        AtomicBoolean deadlocked = new AtomicBoolean();
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        doAnswer(inv -> {
+            if (deadlocked.compareAndSet(false, true)) {
+                bothStarted.countDown();
+                bothStarted.await(5, TimeUnit.SECONDS);
+                throw new CannotAcquireLockException("Deadlock found when trying to get lock");
+            }
+            bothStarted.countDown();
+            rowLocks.lock();
+            try {
+                return inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+            } finally {
+                rowLocks.unlock();
+            }
+        }).when(transactionTemplate).execute(any());
+
+        ExecutorService voters = Executors.newFixedThreadPool(2);
+        try {
+            Future<VoteStateDTO> first = voters.submit(() -> voteService.voteQuestion(QUESTION, vote("UPVOTE"), USER));
+            Future<VoteStateDTO> second = voters.submit(() -> voteService.voteQuestion(QUESTION, vote("UPVOTE"), USER));
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+        } finally {
+            voters.shutdownNow();
+        }
+
+        assertThat(votes).doesNotContainKey(QUESTION);
+        assertThat(upDeltas).hasValue(0);
+        assertThat(downDeltas).hasValue(0);
+        verify(transactionTemplate, times(3)).execute(any());
+    }
+
+    private static VoteDto vote(String type) {
+        VoteDto dto = new VoteDto();
+        dto.setVoteType(type);
+        return dto;
+    }
+}
@@ -0,0 +1,94 @@
+package com.reddot.app.util;
+
+import com.reddot.app.entity.User;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtUtilTest {
+    private JwtUtil jwtUtil;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        user = new User("user", "user@reddot.com", "password");
+        user.setId(7);
+    }
+
+    @Test
+    void verifiedTokenCarriesItsClaims() {
+        JwtClaims claims = jwtUtil.verify(jwtUtil.generateToken(user));
+
+        assertThat(claims.id()).isNotBlank();
+        assertThat(claims.userId()).isEqualTo(7);
+        assertThat(claims.email()).isEqualTo("user@reddot.com");
+        assertThat(claims.expiresAt()).isAfter(Instant.now());
+    }
+
+    @Test
+    void everyTokenHasItsOwnId() {
+        JwtClaims first = jwtUtil.verify(jwtUtil.generateToken(user));
+        JwtClaims second = jwtUtil.verify(jwtUtil.generateToken(user));
+
+        assertThat(first.id()).isNotEqualTo(second.id());
+    }
+
+    @Test
+    void sameTokenIsVerifiedOnce() {
+        String jws = jwtUtil.generateToken(user);
+
+        JwtClaims first = jwtUtil.verify(jws);
+        JwtClaims second = jwtUtil.verify(jws);
+
+        assertThat(second).isSameAs(first);
+        assertThat(jwtUtil.verified.getIfPresent(jws)).isSameAs(first);
+    }
+
+    @Test
+    void tamperedTokenIsRejectedAndNotCached() {
+        String jws = jwtUtil.generateToken(user);
+        String tampered = jws.substring(0, jws.length() - 4) + (jws.endsWith("AAAA") ? "BBBB" : "AAAA");
+
+        assertThatThrownBy(() -> jwtUtil.verify(tampered)).isInstanceOf(JwtException.class);
+        assertThat(jwtUtil.verified.getIfPresent(tampered)).isNull();
+    }
+
+    @Test
+    void tokenSignedWithAnotherKeyIsRejected() {
+        String foreign = new JwtUtil().generateToken(user);
+
+        assertThatThrownBy(() -> jwtUtil.verify(foreign)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        String expired = Jwts.builder().signWith(jwtUtil.key, jwtUtil.alg)
+                .subject("user@reddot.com").claim("userId", 7)
+                .expiration(Date.from(Instant.now().minusSeconds(JwtUtil.seconds + 60)))
+                .compact();
+
+        assertThatThrownBy(() -> jwtUtil.verify(expired)).isInstanceOf(JwtException.class);
+    }
+
+    // a token cached while valid is checked against its expiration again on every hit
+    @Test
+    void cachedTokenIsRejectedOnceExpired() {
+        String expired = Jwts.builder().signWith(jwtUtil.key, jwtUtil.alg)
+                .subject("user@reddot.com").claim("userId", 7)
+                .expiration(Date.from(Instant.now().minusSeconds(JwtUtil.seconds + 60)))
+                .compact();
+        jwtUtil.verified.put(expired, new JwtClaims(null, 7, "user@reddot.com",
+                Instant.now().minusSeconds(JwtUtil.seconds + 60)));
+
+        assertThatThrownBy(() -> jwtUtil.verify(expired)).isInstanceOf(JwtException.class);
+        assertThat(jwtUtil.verified.getIfPresent(expired)).isNull();
+    }
+}